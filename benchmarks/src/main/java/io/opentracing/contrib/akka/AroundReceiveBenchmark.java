@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.testkit.TestActorRef;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import scala.PartialFunction;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+import scala.runtime.BoxedUnit;
+
+/**
+ * Measures {@code aroundReceive} of the traced base classes, which goes through
+ * {@link TracedActor.Utils} and {@link DistributedTracedActor.Utils}, against a plain
+ * {@link AbstractActor}. The actors are created through {@link TestActorRef} and their
+ * {@code aroundReceive} is invoked directly, so mailbox and dispatcher costs are left out.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AroundReceiveBenchmark {
+
+  static class PlainTestActor extends AbstractActor {
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class TracedTestActor extends TracedAbstractActor {
+    TracedTestActor(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class DistributedTracedTestActor extends DistributedTracedAbstractActor {
+    DistributedTracedTestActor(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  private final Object message = "message";
+
+  private ActorSystem system;
+
+  private AbstractActor plainActor;
+  private PartialFunction<Object, BoxedUnit> plainReceive;
+
+  private AbstractActor tracedActor;
+  private PartialFunction<Object, BoxedUnit> tracedReceive;
+  private Object tracedMessage;
+
+  private AbstractActor distributedTracedActor;
+  private PartialFunction<Object, BoxedUnit> distributedTracedReceive;
+  private Object distributedTracedMessage;
+
+  @Setup(Level.Trial)
+  public void setUp(TracerState state) {
+    final Tracer tracer = state.tracer;
+    system = ActorSystem.create("benchmark");
+
+    plainActor = underlyingActor(Props.create(PlainTestActor.class, PlainTestActor::new));
+    plainReceive = plainActor.receive();
+
+    tracedActor = underlyingActor(
+        Props.create(TracedTestActor.class, () -> new TracedTestActor(tracer)));
+    tracedReceive = tracedActor.receive();
+
+    distributedTracedActor = underlyingActor(Props.create(DistributedTracedTestActor.class,
+        () -> new DistributedTracedTestActor(tracer)));
+    distributedTracedReceive = distributedTracedActor.receive();
+
+    final Span span = tracer.buildSpan("benchmark").start();
+    tracedMessage = TracedMessage.wrap(span, message);
+    distributedTracedMessage = DistributedTracedMessage.wrap(tracer, span, message);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    Await.result(system.terminate(), Duration.create(10, TimeUnit.SECONDS));
+  }
+
+  private AbstractActor underlyingActor(Props props) {
+    final TestActorRef<AbstractActor> ref = TestActorRef.create(system, props);
+    return ref.underlyingActor();
+  }
+
+  @Benchmark
+  public void plain() {
+    plainActor.aroundReceive(plainReceive, message);
+  }
+
+  @Benchmark
+  public void tracedUnwrapped() {
+    tracedActor.aroundReceive(tracedReceive, message);
+  }
+
+  @Benchmark
+  public void tracedWrapped() {
+    tracedActor.aroundReceive(tracedReceive, tracedMessage);
+  }
+
+  @Benchmark
+  public void distributedTracedUnwrapped() {
+    distributedTracedActor.aroundReceive(distributedTracedReceive, message);
+  }
+
+  @Benchmark
+  public void distributedTracedWrapped() {
+    distributedTracedActor.aroundReceive(distributedTracedReceive, distributedTracedMessage);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DistributedTracedMessageBenchmark {
+
+  private static final int FAN_OUT = 100;
+
+  private final Object message = "message";
+  private Tracer tracer;
+  private Span span;
+  private DistributedTracedMessage<?> wrapped;
+
+  @Setup(Level.Trial)
+  public void setUp(TracerState state) {
+    tracer = state.tracer;
+    span = tracer.buildSpan("benchmark").start();
+    wrapped = (DistributedTracedMessage<?>) DistributedTracedMessage.wrap(tracer, span, message);
+  }
+
+  /**
+   * Header injection into a fresh carrier, as done on every send.
+   */
+  @Benchmark
+  public Object wrap() {
+    return DistributedTracedMessage.wrap(tracer, span, message);
+  }
+
+  @Benchmark
+  public Object wrapWithoutSpan() {
+    return DistributedTracedMessage.wrap(tracer, null, message);
+  }
+
+  /**
+   * One event sent to {@value #FAN_OUT} actors, injecting for each of them.
+   */
+  @Benchmark
+  @OperationsPerInvocation(FAN_OUT)
+  public void fanOutWrap(Blackhole blackhole) {
+    for (int i = 0; i < FAN_OUT; i++) {
+      blackhole.consume(DistributedTracedMessage.wrap(tracer, span, message));
+    }
+  }
+
+  /**
+   * One event sent to {@value #FAN_OUT} actors, injecting once into a shared {@link TraceCarrier}.
+   */
+  @Benchmark
+  @OperationsPerInvocation(FAN_OUT)
+  public void fanOutTraceCarrier(Blackhole blackhole) {
+    final TraceCarrier carrier = TraceCarrier.of(tracer, span);
+    for (int i = 0; i < FAN_OUT; i++) {
+      blackhole.consume(carrier.wrap(message));
+    }
+  }
+
+  /**
+   * Header extraction plus the start of the "receive" span, as done on every receive.
+   */
+  @Benchmark
+  public Span activeSpan() {
+    return wrapped.activeSpan(tracer);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.cluster.sharding.ShardRegion;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The ShardRegion routing path: {@code shardId}, {@code entityId} and {@code entityMessage} of
+ * the same message, through a plain extractor and through
+ * {@link DistributedTracedMessageExtractor}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DistributedTracedMessageExtractorBenchmark {
+
+  static final class Envelope {
+    final String id;
+    final Object payload;
+
+    Envelope(String id, Object payload) {
+      this.id = id;
+      this.payload = payload;
+    }
+  }
+
+  static final class EnvelopeExtractor implements ShardRegion.MessageExtractor {
+    @Override
+    public String entityId(Object message) {
+      return ((Envelope) message).id;
+    }
+
+    @Override
+    public Object entityMessage(Object message) {
+      return ((Envelope) message).payload;
+    }
+
+    @Override
+    public String shardId(Object message) {
+      return ((Envelope) message).id;
+    }
+  }
+
+  private final Envelope message = new Envelope("entity-1", "payload");
+  private final ShardRegion.MessageExtractor plainExtractor = new EnvelopeExtractor();
+  private final ShardRegion.MessageExtractor tracedExtractor =
+      new DistributedTracedMessageExtractor(new EnvelopeExtractor());
+  private Object tracedMessage;
+
+  @Setup(Level.Trial)
+  public void setUp(TracerState state) {
+    final Tracer tracer = state.tracer;
+    final Span span = tracer.buildSpan("benchmark").start();
+    tracedMessage = DistributedTracedMessage.wrap(tracer, span, message);
+  }
+
+  @Benchmark
+  public void plain(Blackhole blackhole) {
+    route(plainExtractor, message, blackhole);
+  }
+
+  @Benchmark
+  public void tracedUnwrapped(Blackhole blackhole) {
+    route(tracedExtractor, message, blackhole);
+  }
+
+  @Benchmark
+  public void tracedWrapped(Blackhole blackhole) {
+    route(tracedExtractor, tracedMessage, blackhole);
+  }
+
+  private static void route(ShardRegion.MessageExtractor extractor, Object message,
+      Blackhole blackhole) {
+    blackhole.consume(extractor.shardId(message));
+    blackhole.consume(extractor.entityId(message));
+    blackhole.consume(extractor.entityMessage(message));
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ActorSystem;
+import akka.dispatch.Futures;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import scala.concurrent.Await;
+import scala.concurrent.ExecutionContextExecutor;
+import scala.concurrent.Future;
+import scala.concurrent.Promise;
+import scala.concurrent.duration.Duration;
+
+/**
+ * Submits batches of tasks to the default dispatcher, unwrapped and wrapped by
+ * {@link TracedExecutionContext} with and without an active span. The {@code callbacks*}
+ * benchmarks chain Future callbacks instead, which the dispatcher batches on one thread as long
+ * as the wrapper keeps them marked as batchable.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TracedExecutorBenchmark {
+
+  private static final int BATCH = 1000;
+
+  private ActorSystem system;
+  private Tracer tracer;
+  private ExecutionContextExecutor dispatcher;
+  private ExecutionContextExecutor traced;
+  private Span span;
+
+  @Setup(Level.Trial)
+  public void setUp(TracerState state) {
+    system = ActorSystem.create("benchmark");
+    tracer = state.tracer;
+    dispatcher = system.dispatcher();
+    traced = TracedExecutionContext.wrap(tracer, dispatcher);
+    span = tracer.buildSpan("benchmark").start();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    system.terminate();
+    system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void unwrapped() throws InterruptedException {
+    submit(dispatcher);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void wrappedWithoutSpan() throws InterruptedException {
+    submit(traced);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public void wrappedWithSpan() throws InterruptedException {
+    try (io.opentracing.Scope ignored = tracer.activateSpan(span)) {
+      submit(traced);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public Integer callbacksUnwrapped() throws Exception {
+    return chain(dispatcher);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public Integer callbacksWrappedWithoutSpan() throws Exception {
+    return chain(traced);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public Integer callbacksWrappedWithSpan() throws Exception {
+    try (io.opentracing.Scope ignored = tracer.activateSpan(span)) {
+      return chain(traced);
+    }
+  }
+
+  private static Integer chain(ExecutionContextExecutor executor) throws Exception {
+    Promise<Integer> promise = Futures.promise();
+    Future<Integer> future = promise.future();
+    for (int i = 0; i < BATCH; i++) {
+      future = future.map(n -> n + 1, executor);
+    }
+    promise.success(0);
+    return Await.result(future, Duration.Inf());
+  }
+
+  private static void submit(ExecutionContextExecutor executor) throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(BATCH);
+    Runnable task = latch::countDown;
+    for (int i = 0; i < BATCH; i++) {
+      executor.execute(task);
+    }
+    latch.await();
+  }
+}
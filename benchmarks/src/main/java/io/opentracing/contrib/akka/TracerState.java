@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.Tracer;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.noop.NoopTracerFactory;
+import io.opentracing.util.ThreadLocalScopeManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+public class TracerState {
+
+  @Param({"mock", "mock-actor-scopes", "noop"})
+  public String tracerType;
+
+  public Tracer tracer;
+
+  @Setup(Level.Trial)
+  public void setUpTracer() {
+    switch (tracerType) {
+      case "mock":
+        tracer = new MockTracer(new ThreadLocalScopeManager());
+        break;
+      case "mock-actor-scopes":
+        tracer = new MockTracer(new ActorScopeManager());
+        break;
+      case "noop":
+        tracer = NoopTracerFactory.create();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown tracer type: " + tracerType);
+    }
+  }
+
+  /**
+   * {@link MockTracer} keeps every finished span; drop them between iterations so retained spans
+   * do not distort the allocation numbers of later iterations.
+   */
+  @TearDown(Level.Iteration)
+  public void resetTracer() {
+    if (tracer instanceof MockTracer) {
+      ((MockTracer) tracer).reset();
+    }
+  }
+}
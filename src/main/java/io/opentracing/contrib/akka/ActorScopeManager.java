@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.Scope;
+import io.opentracing.ScopeManager;
+import io.opentracing.Span;
+import java.util.Arrays;
+
+/**
+ * {@link ScopeManager} tuned for the activate/close pattern of actor message dispatch, usable in
+ * place of {@code ThreadLocalScopeManager}:
+ * <pre>
+ * Tracer tracer = new JaegerTracer.Builder("service")
+ *     .withScopeManager(new ActorScopeManager())
+ *     .build();
+ * </pre>
+ * Each thread owns a slot holding its stack of active spans, and re-activating the span that is
+ * already active (e.g. a {@link TracedMessage} told to self) returns a no-op scope.
+ *
+ * <p>The traced actors and executors of this library activate spans through one
+ * {@link ThreadLocal#get()} per message and no allocation: they get the slot's reusable scope for
+ * the depth, which they close exactly once. Scopes returned by {@link #activate} to other code
+ * are small per-activation handles instead, so that closing one twice is harmless: a pooled scope
+ * closed again after its depth was re-activated would be indistinguishable from the new
+ * activation's.
+ *
+ * <p>A scope must be closed on the thread that activated it, as try-with-resources does. Closing
+ * a scope that is not the innermost active one of the current thread is ignored, like
+ * {@code ThreadLocalScopeManager} does, and so is closing a scope a second time: every
+ * activation gets a new generation, checked on close.
+ */
+public final class ActorScopeManager implements ScopeManager {
+  private final ThreadLocal<Slot> slots = ThreadLocal.withInitial(Slot::new);
+
+  @Override
+  public Scope activate(Span span) {
+    return slots.get().activate(span, false);
+  }
+
+  @Override
+  public Span activeSpan() {
+    return slots.get().activeSpan();
+  }
+
+  /**
+   * Activates {@code span} for a scope the caller closes exactly once, reusing the scope object
+   * if {@code scopeManager} is an {@link ActorScopeManager}.
+   */
+  static Scope activateOnce(ScopeManager scopeManager, Span span) {
+    if (scopeManager instanceof ActorScopeManager) {
+      return ((ActorScopeManager) scopeManager).slots.get().activate(span, true);
+    }
+    return scopeManager.activate(span);
+  }
+
+  private static final class Slot {
+    private final Thread owner = Thread.currentThread();
+    private final Scope noopScope = () -> {
+    };
+    private Span[] spans = new Span[4];
+    private long[] generations = new long[4];
+    private ReusableScope[] reusableScopes = new ReusableScope[4];
+    private long generation;
+    private int depth;
+
+    Span activeSpan() {
+      return depth == 0 ? null : spans[depth - 1];
+    }
+
+    Scope activate(Span span, boolean reusable) {
+      if (depth > 0 && spans[depth - 1] == span) {
+        return noopScope;
+      }
+      if (depth == spans.length) {
+        spans = Arrays.copyOf(spans, depth * 2);
+        generations = Arrays.copyOf(generations, depth * 2);
+        reusableScopes = Arrays.copyOf(reusableScopes, depth * 2);
+      }
+      final long scopeGeneration = ++generation;
+      final int scopeDepth = depth++;
+      spans[scopeDepth] = span;
+      generations[scopeDepth] = scopeGeneration;
+      if (!reusable) {
+        return new SlotScope(this, scopeDepth, scopeGeneration);
+      }
+      ReusableScope scope = reusableScopes[scopeDepth];
+      if (scope == null) {
+        scope = new ReusableScope(this, scopeDepth);
+        reusableScopes[scopeDepth] = scope;
+      }
+      scope.generation = scopeGeneration;
+      return scope;
+    }
+
+    void close(int scopeDepth, long scopeGeneration) {
+      if (Thread.currentThread() != owner || depth != scopeDepth + 1
+          || generations[scopeDepth] != scopeGeneration) {
+        return;
+      }
+      depth--;
+      spans[depth] = null;
+    }
+  }
+
+  private static final class SlotScope implements Scope {
+    private final Slot slot;
+    private final int depth;
+    private final long generation;
+
+    private SlotScope(Slot slot, int depth, long generation) {
+      this.slot = slot;
+      this.depth = depth;
+      this.generation = generation;
+    }
+
+    @Override
+    public void close() {
+      slot.close(depth, generation);
+    }
+  }
+
+  private static final class ReusableScope implements Scope {
+    private final Slot slot;
+    private final int depth;
+    private long generation;
+
+    private ReusableScope(Slot slot, int depth) {
+      this.slot = slot;
+      this.depth = depth;
+    }
+
+    @Override
+    public void close() {
+      slot.close(depth, generation);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ActorContext;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.dispatch.MessageDispatcher;
+import io.opentracing.Tracer;
+import scala.concurrent.ExecutionContextExecutor;
+
+/**
+ * Tags describing the actor handling a message: its path, actor system and dispatcher id. They
+ * are rendered once per actor instance by the traced base classes (see {@link #of}) and applied
+ * as is to every "receive" span the library starts, so tagging costs no allocation per message.
+ * Spans propagated by {@link TracedMessage} belong to the sender and are never tagged.
+ * The stats of a {@link TracedMailbox} are available from {@link #mailbox()}; reading them costs
+ * more than a tag per message is worth, so they are not added to spans.
+ */
+public final class ActorTags {
+  public static final String ACTOR_PATH = "akka.actor.path";
+  public static final String ACTOR_SYSTEM = "akka.actor.system";
+  public static final String DISPATCHER = "akka.dispatcher";
+
+  /**
+   * Adds no tags, for actors not started yet or driven outside of the base classes.
+   */
+  public static final ActorTags EMPTY = new ActorTags(null, null, null, null);
+
+  private final String actorPath;
+  private final String actorSystem;
+  private final String dispatcher;
+  private final MailboxStats mailbox;
+
+  private ActorTags(String actorPath, String actorSystem, String dispatcher,
+      MailboxStats mailbox) {
+    this.actorPath = actorPath;
+    this.actorSystem = actorSystem;
+    this.dispatcher = dispatcher;
+    this.mailbox = mailbox;
+  }
+
+  public static ActorTags of(ActorContext context) {
+    return of(context.self(), context.system(), context.dispatcher());
+  }
+
+  static ActorTags of(ActorRef self, ActorSystem system, ExecutionContextExecutor executor) {
+    final String dispatcher = executor instanceof MessageDispatcher
+        ? ((MessageDispatcher) executor).id() : null;
+    return new ActorTags(self.path().toString(), system.name(), dispatcher,
+        TracedMailboxes.lookup(system, self));
+  }
+
+  public String actorPath() {
+    return actorPath;
+  }
+
+  public String actorSystem() {
+    return actorSystem;
+  }
+
+  public String dispatcher() {
+    return dispatcher;
+  }
+
+  /**
+   * Stats of the actor's mailbox, or null if it does not run with a traced mailbox.
+   */
+  public MailboxStats mailbox() {
+    return mailbox;
+  }
+
+  /**
+   * Adds these tags to {@code spanBuilder}, e.g. for spans started by the actor itself.
+   */
+  public Tracer.SpanBuilder applyTo(Tracer.SpanBuilder spanBuilder) {
+    if (actorPath != null) {
+      spanBuilder = spanBuilder.withTag(ACTOR_PATH, actorPath);
+    }
+    if (actorSystem != null) {
+      spanBuilder = spanBuilder.withTag(ACTOR_SYSTEM, actorSystem);
+    }
+    if (dispatcher != null) {
+      spanBuilder = spanBuilder.withTag(DISPATCHER, dispatcher);
+    }
+    return spanBuilder;
+  }
+
+  @Override
+  public String toString() {
+    return "ActorTags{" +
+        "actorPath=" + actorPath +
+        ", actorSystem=" + actorSystem +
+        ", dispatcher=" + dispatcher +
+        '}';
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.AbstractExtensionId;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Extension;
+import akka.actor.ExtensionId;
+import akka.actor.ExtensionIdProvider;
+import com.typesafe.config.Config;
+import io.opentracing.Tracer;
+import io.opentracing.util.GlobalTracer;
+
+/**
+ * Actor system extension holding the tracing configuration of the {@code opentracing.akka} block,
+ * read once when the extension is first used. The {@code Traced*} and {@code DistributedTraced*}
+ * base classes pick it up when they start: the tracer when created with their no-argument
+ * constructor, the {@link ReceiveSettings} and the queue time recorder unless they override the
+ * corresponding methods. Senders use {@link #wrap} to apply the configured propagation, and
+ * the sampling policy, which skips injection for unsampled contexts:
+ * <pre>
+ * AkkaTracing tracing = AkkaTracing.get(system);
+ * actorRef.tell(tracing.wrap(message, actorRef), self);
+ * </pre>
+ *
+ * <p>{@code opentracing.akka.message-filter} is not part of it: messages are filtered where
+ * no actor system is at hand, see {@link MessageFilter#global()}.
+ */
+public final class AkkaTracing implements Extension {
+  public static final ExtensionId<AkkaTracing> ID = new Id();
+
+  private final Tracer tracer;
+  private final Propagation propagation;
+  private final ReceiveSettings receiveSettings;
+  private final LatencyHistogram queueTimeHistogram;
+
+  private AkkaTracing(Tracer tracer, Propagation propagation, ReceiveSettings receiveSettings,
+      LatencyHistogram queueTimeHistogram) {
+    this.tracer = tracer;
+    this.propagation = propagation;
+    this.receiveSettings = receiveSettings;
+    this.queueTimeHistogram = queueTimeHistogram;
+  }
+
+  public static AkkaTracing get(ActorSystem system) {
+    return ID.get(system);
+  }
+
+  static AkkaTracing fromConfig(Config config, ClassLoader classLoader) {
+    final SamplingPolicy samplingPolicy = samplingPolicy(config.getString("sampling-policy"),
+        classLoader);
+    ReceiveSettings receiveSettings = ReceiveSettings.DEFAULT
+        .withSamplingPolicy(samplingPolicy)
+        .withReceiveMode(receiveMode(config.getString("receive-mode")))
+        .withSpanNaming(spanNaming(config.getString("span-naming"), classLoader));
+
+    final int spansPerSecond = config.getInt("spans-per-second");
+    if (spansPerSecond > 0) {
+      receiveSettings = receiveSettings.withSpanGovernor(SpanGovernor.perSecond(spansPerSecond));
+    }
+    LatencyHistogram queueTimeHistogram = null;
+    if (config.getBoolean("queue-time")) {
+      queueTimeHistogram = new LatencyHistogram();
+      receiveSettings = receiveSettings.withQueueTimeRecorder(queueTimeHistogram);
+    }
+    return new AkkaTracing(GlobalTracer.get(), propagation(config.getString("propagation")),
+        receiveSettings, queueTimeHistogram);
+  }
+
+  /**
+   * {@link GlobalTracer}, used by traced actors created without an explicit tracer.
+   */
+  public Tracer tracer() {
+    return tracer;
+  }
+
+  public Propagation propagation() {
+    return propagation;
+  }
+
+  public ReceiveSettings receiveSettings() {
+    return receiveSettings;
+  }
+
+  /**
+   * Queue times recorded by the traced actors, or null if {@code queue-time} is off.
+   */
+  public LatencyHistogram queueTimeHistogram() {
+    return queueTimeHistogram;
+  }
+
+  QueueTimeRecorder queueTimeRecorder() {
+    return queueTimeHistogram == null ? QueueTimeRecorder.NOOP : queueTimeHistogram;
+  }
+
+  /**
+   * Wraps {@code message} in a {@link DistributedTracedMessage} carrying the active span, with
+   * the configured propagation. Unsampled contexts are not injected, only their sampling
+   * decision is carried.
+   */
+  public Object wrap(Object message) {
+    return DistributedTracedMessage.wrap(tracer, tracer.activeSpan(), message, propagation,
+        receiveSettings.samplingPolicy(), null, false);
+  }
+
+  /**
+   * Same as {@link #wrap(Object)}, skipping injection if {@code target} is local (see
+   * {@link DistributedTracedMessage#wrap(Tracer, io.opentracing.Span, Object, ActorRef)}).
+   */
+  public Object wrap(Object message, ActorRef target) {
+    if (target == null) {
+      throw new IllegalArgumentException("target cannot be null");
+    }
+    return DistributedTracedMessage.wrap(tracer, tracer.activeSpan(), message, propagation,
+        receiveSettings.samplingPolicy(), target, false);
+  }
+
+  /**
+   * Injects the active span once, with the configured propagation and sampling policy, for
+   * sending the same message to many actors.
+   */
+  public TraceCarrier traceCarrier() {
+    return TraceCarrier.of(tracer, tracer.activeSpan(), propagation,
+        receiveSettings.samplingPolicy());
+  }
+
+  private static Propagation propagation(String value) {
+    switch (value) {
+      case "text-map":
+        return Propagation.TEXT_MAP;
+      case "binary":
+        return Propagation.BINARY;
+      default:
+        throw new IllegalArgumentException("Unknown opentracing.akka.propagation: " + value);
+    }
+  }
+
+  private static ReceiveMode receiveMode(String value) {
+    switch (value) {
+      case "span":
+        return ReceiveMode.SPAN;
+      case "context-only":
+        return ReceiveMode.CONTEXT_ONLY;
+      default:
+        throw new IllegalArgumentException("Unknown opentracing.akka.receive-mode: " + value);
+    }
+  }
+
+  private static SamplingPolicy samplingPolicy(String value, ClassLoader classLoader) {
+    if (value.equals("always")) {
+      return SamplingPolicy.ALWAYS;
+    }
+    return instantiate(value, SamplingPolicy.class, classLoader);
+  }
+
+  private static SpanNaming spanNaming(String value, ClassLoader classLoader) {
+    switch (value) {
+      case "default":
+        return SpanNaming.DEFAULT;
+      case "message-class":
+        return SpanNaming.MESSAGE_CLASS;
+      default:
+        return instantiate(value, SpanNaming.class, classLoader);
+    }
+  }
+
+  private static <T> T instantiate(String className, Class<T> type, ClassLoader classLoader) {
+    try {
+      return type.cast(Class.forName(className, true, classLoader)
+          .getDeclaredConstructor()
+          .newInstance());
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      throw new IllegalArgumentException(
+          "Cannot create " + type.getSimpleName() + " from " + className, e);
+    }
+  }
+
+  private static final class Id extends AbstractExtensionId<AkkaTracing> implements
+      ExtensionIdProvider {
+
+    @Override
+    public AkkaTracing createExtension(ExtendedActorSystem system) {
+      return fromConfig(system.settings().config().getConfig("opentracing.akka"),
+          system.dynamicAccess().classLoader());
+    }
+
+    @Override
+    public ExtensionId<? extends Extension> lookup() {
+      return ID;
+    }
+  }
+}
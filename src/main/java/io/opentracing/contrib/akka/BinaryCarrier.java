@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.BinaryExtract;
+import io.opentracing.propagation.BinaryInject;
+import io.opentracing.propagation.Format;
+import java.nio.ByteBuffer;
+
+/**
+ * Span context injected through {@link Format.Builtin#BINARY_INJECT}, kept as an exactly-sized
+ * byte array and only parsed back when {@link #extract(Tracer)} is called on the receiving side.
+ */
+final class BinaryCarrier implements SpanContextCarrier, BinaryExtract {
+  private static final byte[] EMPTY = new byte[0];
+
+  private final byte[] bytes;
+
+  BinaryCarrier(byte[] bytes) {
+    this.bytes = bytes;
+  }
+
+  static BinaryCarrier inject(Tracer tracer, SpanContext spanContext) {
+    final Injector injector = new Injector();
+    tracer.inject(spanContext, Format.Builtin.BINARY_INJECT, injector);
+    return new BinaryCarrier(injector.bytes);
+  }
+
+  byte[] bytes() {
+    return bytes;
+  }
+
+  @Override
+  public SpanContext extract(Tracer tracer) {
+    if (bytes.length == 0) {
+      return null;
+    }
+    return tracer.extract(Format.Builtin.BINARY_EXTRACT, this);
+  }
+
+  @Override
+  public ByteBuffer extractionBuffer() {
+    return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+  }
+
+  private static final class Injector implements BinaryInject {
+    private byte[] bytes = EMPTY;
+
+    @Override
+    public ByteBuffer injectionBuffer(int length) {
+      if (length < 1) {
+        throw new IllegalArgumentException("length needs to be larger than 0");
+      }
+      bytes = new byte[length];
+      return ByteBuffer.wrap(bytes);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.Scope;
+import io.opentracing.ScopeManager;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.tag.Tag;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Non-recording {@link Span} exposing an extracted {@link SpanContext}, activated in
+ * {@link ReceiveMode#CONTEXT_ONLY} so that new spans pick the context up as their parent. Tags,
+ * logs and finishing are ignored.
+ *
+ * <p>Some scope managers only accept spans of their own tracer, e.g. Brave's rejects anything
+ * but a {@code BraveSpan} with an {@link IllegalArgumentException}. {@link #activate} remembers
+ * such scope manager classes and returns null for them, and callers start a real span instead.
+ */
+final class ContextSpan implements Span {
+  private static final Logger logger = Logger.getLogger(ContextSpan.class.getName());
+  private static final ClassValue<Support> support = new ClassValue<Support>() {
+    @Override
+    protected Support computeValue(Class<?> scopeManagerClass) {
+      return new Support();
+    }
+  };
+
+  private final SpanContext context;
+
+  ContextSpan(SpanContext context) {
+    this.context = context;
+  }
+
+  /**
+   * Activates {@code context} in {@code scopeManager}, or returns null if the scope manager does
+   * not accept spans it did not create.
+   */
+  static Scope activate(ScopeManager scopeManager, SpanContext context) {
+    final Support scopeManagerSupport = support.get(scopeManager.getClass());
+    if (!scopeManagerSupport.accepted) {
+      return null;
+    }
+    try {
+      return ActorScopeManager.activateOnce(scopeManager, new ContextSpan(context));
+    } catch (IllegalArgumentException | ClassCastException e) {
+      scopeManagerSupport.accepted = false;
+      return null;
+    }
+  }
+
+  /**
+   * Warns, once per scope manager class, that {@link ReceiveMode#CONTEXT_ONLY} records "receive"
+   * spans because {@link #activate} was rejected.
+   */
+  static void warnContextOnly(ScopeManager scopeManager) {
+    if (support.get(scopeManager.getClass()).warned.compareAndSet(false, true)) {
+      logger.warning("ReceiveMode.CONTEXT_ONLY is not supported by "
+          + scopeManager.getClass().getName()
+          + ", which only accepts spans of its own tracer: a \"receive\" span is recorded for"
+          + " every message instead");
+    }
+  }
+
+  private static final class Support {
+    private volatile boolean accepted = true;
+    private final AtomicBoolean warned = new AtomicBoolean();
+  }
+
+  @Override
+  public SpanContext context() {
+    return context;
+  }
+
+  @Override
+  public Span setTag(String key, String value) {
+    return this;
+  }
+
+  @Override
+  public Span setTag(String key, boolean value) {
+    return this;
+  }
+
+  @Override
+  public Span setTag(String key, Number value) {
+    return this;
+  }
+
+  @Override
+  public <T> Span setTag(Tag<T> tag, T value) {
+    return this;
+  }
+
+  @Override
+  public Span log(Map<String, ?> fields) {
+    return this;
+  }
+
+  @Override
+  public Span log(long timestampMicroseconds, Map<String, ?> fields) {
+    return this;
+  }
+
+  @Override
+  public Span log(String event) {
+    return this;
+  }
+
+  @Override
+  public Span log(long timestampMicroseconds, String event) {
+    return this;
+  }
+
+  @Override
+  public Span setBaggageItem(String key, String value) {
+    return this;
+  }
+
+  @Override
+  public String getBaggageItem(String key) {
+    for (Map.Entry<String, String> item : context.baggageItems()) {
+      if (item.getKey().equals(key)) {
+        return item.getValue();
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Span setOperationName(String operationName) {
+    return this;
+  }
+
+  @Override
+  public void finish() {
+  }
+
+  @Override
+  public void finish(long finishMicros) {
+  }
+
+  @Override
+  public String toString() {
+    return "ContextSpan{" +
+        "context=" + context +
+        '}';
+  }
+}
@@ -14,17 +14,26 @@
 package io.opentracing.contrib.akka;
 
 import akka.actor.AbstractActorWithStash;
+import akka.actor.ActorSystem;
 import io.opentracing.Tracer;
-import io.opentracing.util.GlobalTracer;
+import java.util.function.BiConsumer;
 import scala.PartialFunction;
 import scala.runtime.BoxedUnit;
 
 public abstract class DistributedTracedAbstractActorWithStash extends
     AbstractActorWithStash implements DistributedTracedActor {
   Tracer tracer;
+  private final BiConsumer<PartialFunction<Object, BoxedUnit>, Object> superAroundReceive =
+      super::aroundReceive;
+  private ActorTags actorTags = ActorTags.EMPTY;
+  private TracingToggle tracingToggle = TracingToggle.ALWAYS;
+  private ReceiveSettings receiveSettings = ReceiveSettings.DEFAULT;
 
+  /**
+   * Uses the tracer of the {@link AkkaTracing} extension, i.e. {@code GlobalTracer}.
+   */
   public DistributedTracedAbstractActorWithStash() {
-    this(GlobalTracer.get());
+    this.tracer = AkkaTracing.get(getContext().getSystem()).tracer();
   }
 
   public DistributedTracedAbstractActorWithStash(Tracer tracer) {
@@ -35,8 +44,46 @@ public abstract class DistributedTracedAbstractActorWithStash extends
     return tracer;
   }
 
+  /**
+   * Tags of this actor, rendered once when it starts and added to the spans it activates.
+   */
+  protected ActorTags actorTags() {
+    return actorTags;
+  }
+
+  /**
+   * Settings of the "receive" side, by default those of the {@link AkkaTracing} extension.
+   */
+  protected ReceiveSettings receiveSettings() {
+    return receiveSettings;
+  }
+
+  @Override
+  public void aroundPreStart() {
+    startTracing();
+    super.aroundPreStart();
+  }
+
+  @Override
+  public void aroundPostRestart(Throwable reason) {
+    startTracing();
+    super.aroundPostRestart(reason);
+  }
+
+  private void startTracing() {
+    final ActorSystem system = getContext().getSystem();
+    actorTags = ActorTags.of(getContext());
+    tracingToggle = TracingToggle.of(TracingSwitch.get(system), getClass(), actorTags);
+    receiveSettings = AkkaTracing.get(system).receiveSettings();
+  }
+
   @Override
   public void aroundReceive(PartialFunction<Object, BoxedUnit> receive, Object message) {
-    Utils.aroundReceive(super::aroundReceive, tracer(), receive, message);
+    if (!tracingToggle.enabled()) {
+      super.aroundReceive(receive, Utils.untraced(message));
+      return;
+    }
+    Utils.aroundReceive(superAroundReceive, tracer(), receiveSettings(), actorTags, receive,
+        message);
   }
 }
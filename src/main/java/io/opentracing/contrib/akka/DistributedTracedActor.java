@@ -16,6 +16,7 @@ package io.opentracing.contrib.akka;
 import akka.actor.Actor;
 import io.opentracing.Scope;
 import io.opentracing.Span;
+import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
 import java.util.function.BiConsumer;
 import scala.PartialFunction;
@@ -26,23 +27,98 @@ public interface DistributedTracedActor extends Actor {
     private Utils() {
     }
 
+    /**
+     * Delivers {@code message} through {@code superConsumer}, unwrapping it first if traced.
+     * Callers on the message path should pass a consumer bound once per actor (e.g. a field
+     * holding {@code super::aroundReceive}) rather than a fresh method reference per call, so
+     * untraced messages go through without allocating.
+     */
     public static void aroundReceive(
         BiConsumer<PartialFunction<Object, BoxedUnit>, Object> superConsumer, Tracer tracer,
         PartialFunction<Object, BoxedUnit> receive, Object message) {
+      aroundReceive(superConsumer, tracer, ReceiveSettings.DEFAULT, ActorTags.EMPTY, receive,
+          message);
+    }
+
+    /**
+     * Same as {@link #aroundReceive(BiConsumer, Tracer, PartialFunction, Object)}, applying
+     * {@code settings}: for an incoming context reported as unsampled, by the sender's or by
+     * the receiver's {@link SamplingPolicy}, in {@link ReceiveMode#CONTEXT_ONLY}, or once the
+     * budget of the {@link SpanGovernor} is spent, the incoming context is activated without
+     * starting a "receive" span, so spans started by the actor keep its sampling decision.
+     * Scope managers accepting only their own spans (e.g. Brave's) cannot activate a bare
+     * context: for them, unsampled and {@code CONTEXT_ONLY} messages get a "receive" span, and
+     * messages shed by the governor are delivered without any context. The first such
+     * {@code CONTEXT_ONLY} span is logged as a warning.
+     */
+    public static void aroundReceive(
+        BiConsumer<PartialFunction<Object, BoxedUnit>, Object> superConsumer, Tracer tracer,
+        ReceiveSettings settings, PartialFunction<Object, BoxedUnit> receive, Object message) {
+      aroundReceive(superConsumer, tracer, settings, ActorTags.EMPTY, receive, message);
+    }
+
+    /**
+     * Same as {@link #aroundReceive(BiConsumer, Tracer, ReceiveSettings, PartialFunction,
+     * Object)}, adding {@code actorTags} to the "receive" spans.
+     */
+    public static void aroundReceive(
+        BiConsumer<PartialFunction<Object, BoxedUnit>, Object> superConsumer, Tracer tracer,
+        ReceiveSettings settings, ActorTags actorTags, PartialFunction<Object, BoxedUnit> receive,
+        Object message) {
       if (!(message instanceof DistributedTracedMessage)) {
         superConsumer.accept(receive, message);
         return;
       }
 
       final DistributedTracedMessage<?> tracedMessage = (DistributedTracedMessage<?>) message;
-      final Span span = tracedMessage.activeSpan(tracer);
       final Object originalMessage = tracedMessage.message();
+      if (!MessageFilter.global().isTraced(originalMessage.getClass())) {
+        superConsumer.accept(receive, originalMessage);
+        return;
+      }
+      final long queueTimeNanos = tracedMessage.queueTimeNanos();
+      final SpanContext spanContext = tracedMessage.spanContext(tracer);
+
+      // Unsampled contexts are checked first so they do not take from the governor's budget.
+      final boolean unsampled = tracedMessage.unsampled()
+          || (spanContext != null && !settings.samplingPolicy().isSampled(spanContext));
+      final boolean contextOnly = settings.receiveMode() == ReceiveMode.CONTEXT_ONLY;
+      if (unsampled || contextOnly || !settings.spanGovernor().tryAcquire()) {
+        final Scope scope = spanContext == null
+            ? null : ContextSpan.activate(tracer.scopeManager(), spanContext);
+        // Messages shed by the governor never get a span, so that its bound holds.
+        if (spanContext == null || scope != null || !(unsampled || contextOnly)) {
+          QueueTime.report(queueTimeNanos, settings.queueTimeRecorder(), null);
+          try (Scope ignored = scope) {
+            superConsumer.accept(receive, originalMessage);
+          }
+          return;
+        }
+        // The scope manager only takes its own spans: fall back to a "receive" span, which the
+        // tracer does not record either if its parent is unsampled.
+        if (contextOnly && !unsampled) {
+          ContextSpan.warnContextOnly(tracer.scopeManager());
+        }
+      }
 
-      try (Scope ignored = tracer.scopeManager().activate(span)) {
+      final Span span = settings.spanTemplate(originalMessage.getClass())
+          .start(tracer, spanContext, actorTags);
+      QueueTime.report(queueTimeNanos, settings.queueTimeRecorder(), span);
+      try (Scope ignored = ActorScopeManager.activateOnce(tracer.scopeManager(), span)) {
         superConsumer.accept(receive, originalMessage);
       } finally {
         span.finish();
       }
     }
+
+    /**
+     * Returns the message to deliver when tracing is disabled for the receiving actor.
+     */
+    static Object untraced(Object message) {
+      if (message instanceof DistributedTracedMessage) {
+        return ((DistributedTracedMessage<?>) message).message();
+      }
+      return message;
+    }
   }
 }
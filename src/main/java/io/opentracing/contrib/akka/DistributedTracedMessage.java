@@ -13,24 +13,35 @@
  */
 package io.opentracing.contrib.akka;
 
-import io.opentracing.References;
+import akka.actor.ActorRef;
 import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.Tracer;
-import io.opentracing.propagation.Format;
-import io.opentracing.tag.Tags;
 import io.opentracing.util.GlobalTracer;
-import java.util.HashMap;
-import java.util.Map;
 
 public final class DistributedTracedMessage<T> {
 
   private T message;
-  private Map<String, String> headers;
+  private SpanContextCarrier carrier;
+  // Racy single-check cache: Extracted is immutable, so a stale read only costs another extract.
+  private Extracted extracted;
+  // System.nanoTime() when wrapped by wrapTimed, 0 otherwise; never serialized.
+  private long enqueuedNanos;
+
+  DistributedTracedMessage(T message, SpanContextCarrier carrier) {
+    this(message, carrier, null, 0);
+  }
+
+  DistributedTracedMessage(T message, SpanContextCarrier carrier, long enqueuedNanos) {
+    this(message, carrier, null, enqueuedNanos);
+  }
 
-  private DistributedTracedMessage(T message, Map<String, String> headers) {
+  private DistributedTracedMessage(T message, SpanContextCarrier carrier, Extracted extracted,
+      long enqueuedNanos) {
     this.message = message;
-    this.headers = headers;
+    this.carrier = carrier;
+    this.extracted = extracted;
+    this.enqueuedNanos = enqueuedNanos;
   }
 
   public static Object wrap(Tracer tracer, Object message) {
@@ -47,21 +58,137 @@ public final class DistributedTracedMessage<T> {
   }
 
   public static <T> Object wrap(Tracer tracer, Span activeSpan, T message) {
+    return wrap(tracer, activeSpan, message, Propagation.TEXT_MAP);
+  }
+
+  public static <T> Object wrap(Tracer tracer, Span activeSpan, T message,
+      Propagation propagation) {
+    return wrap(tracer, activeSpan, message, propagation, SamplingPolicy.ALWAYS, null, false);
+  }
+
+  /**
+   * Same as {@link #wrap(Tracer, Span, Object, Propagation)}, skipping injection when
+   * {@code samplingPolicy} reports the context as unsampled: the wrapper then only carries the
+   * decision, so the receiver neither starts a "receive" span nor a new trace.
+   */
+  public static <T> Object wrap(Tracer tracer, Span activeSpan, T message,
+      Propagation propagation, SamplingPolicy samplingPolicy) {
+    if (samplingPolicy == null) {
+      throw new IllegalArgumentException("samplingPolicy cannot be null");
+    }
+    return wrap(tracer, activeSpan, message, propagation, samplingPolicy, null, false);
+  }
+
+  /**
+   * Wraps {@code message} for {@code target}. When the target lives in this actor system the
+   * live span is carried instead of injected headers, and the receiver does not need to extract
+   * it; injection only happens if the message is serialized, i.e. actually leaves this node.
+   */
+  public static <T> Object wrap(Tracer tracer, Span activeSpan, T message, ActorRef target) {
+    return wrap(tracer, activeSpan, message, Propagation.TEXT_MAP, target);
+  }
+
+  public static <T> Object wrap(Tracer tracer, Span activeSpan, T message,
+      Propagation propagation, ActorRef target) {
+    if (target == null) {
+      throw new IllegalArgumentException("target cannot be null");
+    }
+    return wrap(tracer, activeSpan, message, propagation, SamplingPolicy.ALWAYS, target, false);
+  }
+
+  /**
+   * Same as {@link #wrap(Tracer, Span, Object, ActorRef)}, also recording when the message was
+   * wrapped so the receiving {@link DistributedTracedActor} can report how long it waited in the
+   * mailbox (see {@link ReceiveSettings#withQueueTimeRecorder}). The timestamp is only valid in
+   * this JVM and is dropped if the message is serialized.
+   */
+  public static <T> Object wrapTimed(Tracer tracer, Span activeSpan, T message, ActorRef target) {
+    if (target == null) {
+      throw new IllegalArgumentException("target cannot be null");
+    }
+    return wrap(tracer, activeSpan, message, Propagation.TEXT_MAP, SamplingPolicy.ALWAYS, target,
+        true);
+  }
+
+  public static <T> Object wrapTimed(Tracer tracer, Span activeSpan, T message) {
+    return wrap(tracer, activeSpan, message, Propagation.TEXT_MAP, SamplingPolicy.ALWAYS, null,
+        true);
+  }
+
+  static <T> Object wrap(Tracer tracer, Span activeSpan, T message, Propagation propagation,
+      SamplingPolicy samplingPolicy, ActorRef target, boolean timed) {
     if (message == null) {
       throw new IllegalArgumentException("message cannot be null");
     }
 
-    if (activeSpan == null) {
+    if (activeSpan == null || !MessageFilter.global().isTraced(message.getClass())) {
       return message;
     }
 
-    final Map<String, String> headers = new HashMap<>();
-    tracer.inject(activeSpan.context(), Format.Builtin.TEXT_MAP_INJECT, headers::put);
-    return new DistributedTracedMessage<>(message, headers);
+    final SpanContextCarrier carrier;
+    if (!samplingPolicy.isSampled(activeSpan.context())) {
+      carrier = new UnsampledCarrier(activeSpan.context());
+    } else if (target != null && isLocal(target)) {
+      carrier = new LocalSpanCarrier(tracer, activeSpan, propagation);
+    } else {
+      carrier = SpanContextCarrier.inject(tracer, activeSpan.context(), propagation);
+    }
+    return new DistributedTracedMessage<>(message, carrier, null, QueueTime.now(timed));
+  }
+
+  static boolean isLocal(ActorRef actorRef) {
+    return actorRef.path().address().hasLocalScope();
+  }
+
+  /**
+   * Returns a wrapper for {@code newMessage} carrying this message's context as is, without
+   * injecting or extracting anything.
+   */
+  @SuppressWarnings("unchecked")
+  <U> DistributedTracedMessage<U> withMessage(U newMessage) {
+    if (newMessage == message) {
+      return (DistributedTracedMessage<U>) this;
+    }
+    return new DistributedTracedMessage<>(newMessage, carrier, extracted, enqueuedNanos);
   }
 
-  private SpanContext spanContext(Tracer tracer) {
-    return tracer.extract(Format.Builtin.TEXT_MAP_EXTRACT, () -> headers.entrySet().iterator());
+  /**
+   * Returns a wrapper for the same message, carrying {@code newCarrier} instead.
+   */
+  DistributedTracedMessage<T> withCarrier(SpanContextCarrier newCarrier) {
+    return new DistributedTracedMessage<>(message, newCarrier, null, enqueuedNanos);
+  }
+
+  SpanContextCarrier carrier() {
+    return carrier;
+  }
+
+  /**
+   * Whether the sender's sampling policy reported the context as unsampled.
+   */
+  boolean unsampled() {
+    return carrier instanceof UnsampledCarrier;
+  }
+
+  /**
+   * Extracts the carried context with {@code tracer}, at most once per tracer: the result,
+   * including a missing context, is cached on the message for later receivers.
+   */
+  SpanContext spanContext(Tracer tracer) {
+    Extracted extracted = this.extracted;
+    if (extracted == null || extracted.tracer != tracer) {
+      extracted = new Extracted(tracer, carrier.extract(tracer));
+      this.extracted = extracted;
+    }
+    return extracted.spanContext;
+  }
+
+  /**
+   * Time elapsed since the message was wrapped, or -1 if it was not wrapped with
+   * {@code wrapTimed} in this JVM.
+   */
+  long queueTimeNanos() {
+    return QueueTime.since(enqueuedNanos);
   }
 
   Span activeSpan() {
@@ -69,22 +196,27 @@ public final class DistributedTracedMessage<T> {
   }
 
   Span activeSpan(final Tracer tracer) {
-    Tracer.SpanBuilder spanBuilder = tracer.buildSpan("receive")
-        .ignoreActiveSpan()
-        .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CONSUMER)
-        .withTag(Tags.COMPONENT, "java-akka");
-
-    final SpanContext context = spanContext(tracer);
-    if (context != null) {
-      spanBuilder = spanBuilder.addReference(References.FOLLOWS_FROM, context);
-    }
-    return spanBuilder.start();
+    return receiveSpan(tracer, spanContext(tracer));
+  }
+
+  static Span receiveSpan(final Tracer tracer, final SpanContext context) {
+    return ReceiveSpanTemplate.DEFAULT.start(tracer, context, ActorTags.EMPTY);
   }
 
   public T message() {
     return message;
   }
 
+  private static final class Extracted {
+    private final Tracer tracer;
+    private final SpanContext spanContext;
+
+    private Extracted(Tracer tracer, SpanContext spanContext) {
+      this.tracer = tracer;
+      this.spanContext = spanContext;
+    }
+  }
+
   @Override
   public String toString() {
     return "DistributedTracedMessage{" +
@@ -24,13 +24,14 @@ public class DistributedTracedMessageExtractor implements ShardRegion.MessageExt
 
   @Override
   public String entityId(final Object message) {
-    if (message instanceof DistributedTracedMessage) {
-      final DistributedTracedMessage<?> tracedMessage = (DistributedTracedMessage<?>) message;
-      return this.target.entityId(tracedMessage.message());
-    }
-    return this.target.entityId(message);
+    return this.target.entityId(unwrap(message));
   }
 
+  /**
+   * Re-wraps the extracted entity message with the headers of the incoming one, passing them
+   * through untouched: routing a message through the shard region neither starts a span nor
+   * injects or extracts the context.
+   */
   @Override
   public Object entityMessage(Object message) {
     if (message instanceof DistributedTracedMessage) {
@@ -39,17 +40,20 @@ public class DistributedTracedMessageExtractor implements ShardRegion.MessageExt
       if (result instanceof DistributedTracedMessage) {
         return result;
       }
-      return DistributedTracedMessage.wrap(distributedTracedMessage.activeSpan(), result);
+      return distributedTracedMessage.withMessage(result);
     }
     return this.target.entityMessage(message);
   }
 
   @Override
   public String shardId(Object message) {
+    return this.target.shardId(unwrap(message));
+  }
+
+  private static Object unwrap(Object message) {
     if (message instanceof DistributedTracedMessage) {
-      final DistributedTracedMessage<?> tracedMessage = (DistributedTracedMessage<?>) message;
-      return this.target.shardId(tracedMessage.message());
+      return ((DistributedTracedMessage<?>) message).message();
     }
-    return this.target.shardId(message);
+    return message;
   }
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ExtendedActorSystem;
+import akka.serialization.ByteBufferSerializer;
+import akka.serialization.Serialization;
+import akka.serialization.SerializationExtension;
+import akka.serialization.Serializer;
+import akka.serialization.SerializerWithStringManifest;
+import akka.serialization.Serializers;
+import java.io.NotSerializableException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializer for {@link DistributedTracedMessage}, bound in this library's {@code reference.conf}.
+ *
+ * <p>The propagated context is written in a compact, length-prefixed layout, followed by the
+ * payload as produced by the payload's own Akka serializer:
+ * <pre>
+ * byte   carrier kind (0 = text map, 1 = binary, 2 = envelope metadata, 3 = unsampled)
+ * text map:  short count, then count x (short length, UTF-8 key, short length, UTF-8 value)
+ * binary:    int length, then the injected bytes
+ * metadata:  nothing, see {@link TracingRemoteInstrument}
+ * unsampled: nothing, only the sampling decision is propagated
+ * int    payload serializer id
+ * short  payload manifest length, then the UTF-8 manifest
+ * ...    payload bytes, up to the end of the buffer
+ * </pre>
+ *
+ * <p>When the payload serializer is a {@link ByteBufferSerializer} (as Akka's built-in ones are),
+ * the payload is written to and read from the Artery buffer directly, without an intermediate
+ * byte array.
+ */
+public final class DistributedTracedMessageSerializer extends SerializerWithStringManifest
+    implements ByteBufferSerializer {
+  static final int IDENTIFIER = 1349726839;
+  static final String MANIFEST = "D";
+
+  private static final byte TEXT_MAP = 0;
+  private static final byte BINARY = 1;
+  private static final byte METADATA = 2;
+  private static final byte UNSAMPLED = 3;
+
+  private final ExtendedActorSystem system;
+  private volatile Serialization serialization;
+
+  public DistributedTracedMessageSerializer(ExtendedActorSystem system) {
+    this.system = system;
+  }
+
+  @Override
+  public int identifier() {
+    return IDENTIFIER;
+  }
+
+  @Override
+  public String manifest(Object o) {
+    if (o instanceof DistributedTracedMessage) {
+      return MANIFEST;
+    }
+    throw new IllegalArgumentException("Cannot serialize object of type " + o.getClass());
+  }
+
+  @Override
+  public void toBinary(Object o, ByteBuffer buffer) {
+    final DistributedTracedMessage<?> tracedMessage = tracedMessage(o);
+    final Object payload = tracedMessage.message();
+    final Serializer payloadSerializer = serialization().findSerializerFor(payload);
+
+    writeCarrier(wireCarrier(tracedMessage), buffer);
+    writePayloadHeader(payloadSerializer, payload, buffer);
+    if (payloadSerializer instanceof ByteBufferSerializer) {
+      ((ByteBufferSerializer) payloadSerializer).toBinary(payload, buffer);
+    } else {
+      buffer.put(payloadSerializer.toBinary(payload));
+    }
+  }
+
+  @Override
+  public byte[] toBinary(Object o) {
+    final DistributedTracedMessage<?> tracedMessage = tracedMessage(o);
+    final Object payload = tracedMessage.message();
+    final Serializer payloadSerializer = serialization().findSerializerFor(payload);
+    final byte[] manifest = utf8(Serializers.manifestFor(payloadSerializer, payload));
+    final byte[] payloadBytes = payloadSerializer.toBinary(payload);
+    final SpanContextCarrier carrier = wireCarrier(tracedMessage);
+
+    final byte[] bytes = new byte[carrierSize(carrier) + 4 + 2 + manifest.length
+        + payloadBytes.length];
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    writeCarrier(carrier, buffer);
+    buffer.putInt(payloadSerializer.identifier());
+    putShortBytes(manifest, buffer);
+    buffer.put(payloadBytes);
+    return bytes;
+  }
+
+  @Override
+  public Object fromBinary(ByteBuffer buffer, String manifest) throws NotSerializableException {
+    if (!MANIFEST.equals(manifest)) {
+      throw new NotSerializableException("Unknown manifest [" + manifest + "]");
+    }
+    final SpanContextCarrier carrier = readCarrier(buffer);
+    final int payloadSerializerId = buffer.getInt();
+    final String payloadManifest = new String(getShortBytes(buffer), StandardCharsets.UTF_8);
+    final Object payload = serialization()
+        .deserializeByteBuffer(buffer, payloadSerializerId, payloadManifest);
+    return new DistributedTracedMessage<>(payload, carrier);
+  }
+
+  @Override
+  public Object fromBinary(byte[] bytes, String manifest) throws NotSerializableException {
+    return fromBinary(ByteBuffer.wrap(bytes), manifest);
+  }
+
+  private Serialization serialization() {
+    Serialization result = serialization;
+    if (result == null) {
+      // Resolved lazily: the extension is still being created while serializers are instantiated.
+      result = SerializationExtension.get(system);
+      serialization = result;
+    }
+    return result;
+  }
+
+  private static DistributedTracedMessage<?> tracedMessage(Object o) {
+    if (o instanceof DistributedTracedMessage) {
+      return (DistributedTracedMessage<?>) o;
+    }
+    throw new IllegalArgumentException("Cannot serialize object of type " + o.getClass());
+  }
+
+  private static SpanContextCarrier wireCarrier(DistributedTracedMessage<?> tracedMessage) {
+    final SpanContextCarrier carrier = tracedMessage.carrier();
+    if (carrier instanceof LocalSpanCarrier) {
+      // Wrapped for a local recipient, but leaving this node after all.
+      return ((LocalSpanCarrier) carrier).inject();
+    }
+    return carrier;
+  }
+
+  private static void writePayloadHeader(Serializer payloadSerializer, Object payload,
+      ByteBuffer buffer) {
+    buffer.putInt(payloadSerializer.identifier());
+    putShortBytes(utf8(Serializers.manifestFor(payloadSerializer, payload)), buffer);
+  }
+
+  private static int carrierSize(SpanContextCarrier carrier) {
+    if (carrier instanceof MetadataCarrier || carrier instanceof UnsampledCarrier) {
+      return 1;
+    }
+    if (carrier instanceof BinaryCarrier) {
+      return 1 + 4 + ((BinaryCarrier) carrier).bytes().length;
+    }
+    final TextMapCarrier headers = (TextMapCarrier) carrier;
+    int size = 1 + 2;
+    for (int i = 0; i < headers.size(); i++) {
+      size += 2 + utf8Length(headers.key(i)) + 2 + utf8Length(headers.value(i));
+    }
+    return size;
+  }
+
+  private static void writeCarrier(SpanContextCarrier carrier, ByteBuffer buffer) {
+    if (carrier instanceof MetadataCarrier) {
+      buffer.put(METADATA);
+      return;
+    }
+    if (carrier instanceof UnsampledCarrier) {
+      buffer.put(UNSAMPLED);
+      return;
+    }
+    if (carrier instanceof BinaryCarrier) {
+      final byte[] bytes = ((BinaryCarrier) carrier).bytes();
+      buffer.put(BINARY);
+      buffer.putInt(bytes.length);
+      buffer.put(bytes);
+      return;
+    }
+    final TextMapCarrier headers = (TextMapCarrier) carrier;
+    buffer.put(TEXT_MAP);
+    buffer.putShort((short) headers.size());
+    for (int i = 0; i < headers.size(); i++) {
+      putShortBytes(utf8(headers.key(i)), buffer);
+      putShortBytes(utf8(headers.value(i)), buffer);
+    }
+  }
+
+  private static SpanContextCarrier readCarrier(ByteBuffer buffer)
+      throws NotSerializableException {
+    final byte kind = buffer.get();
+    switch (kind) {
+      case BINARY: {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new BinaryCarrier(bytes);
+      }
+      case METADATA:
+        // Filled in by TracingRemoteInstrument from the envelope metadata.
+        return new MetadataCarrier(null);
+      case UNSAMPLED:
+        return UnsampledCarrier.DETACHED;
+      case TEXT_MAP: {
+        final String[] keyValues = new String[(buffer.getShort() & 0xFFFF) << 1];
+        for (int i = 0; i < keyValues.length; i += 2) {
+          keyValues[i] = new String(getShortBytes(buffer), StandardCharsets.UTF_8).intern();
+          keyValues[i + 1] = new String(getShortBytes(buffer), StandardCharsets.UTF_8);
+        }
+        return new TextMapCarrier(keyValues);
+      }
+      default:
+        throw new NotSerializableException("Unknown carrier kind [" + kind + "]");
+    }
+  }
+
+  private static byte[] utf8(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int utf8Length(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) >= 0x80) {
+        return utf8(value).length;
+      }
+    }
+    return value.length();
+  }
+
+  private static void putShortBytes(byte[] bytes, ByteBuffer buffer) {
+    if (bytes.length > 0xFFFF) {
+      throw new IllegalArgumentException("Value too long: " + bytes.length + " bytes");
+    }
+    buffer.putShort((short) bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static byte[] getShortBytes(ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+    buffer.get(bytes);
+    return bytes;
+  }
+}
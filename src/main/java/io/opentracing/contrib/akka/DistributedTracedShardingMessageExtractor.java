@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.cluster.sharding.typed.ShardingMessageExtractor;
+
+/**
+ * Typed counterpart of {@link DistributedTracedMessageExtractor}: routes
+ * {@link DistributedTracedMessage}s by the message they wrap and re-wraps the unwrapped entity
+ * message with the incoming headers, untouched. Entities should be created with
+ * {@link TracedBehaviors#traced(akka.actor.typed.Behavior)} to receive the wrappers.
+ */
+public class DistributedTracedShardingMessageExtractor<E, M> extends
+    ShardingMessageExtractor<Object, Object> {
+  private final ShardingMessageExtractor<E, M> target;
+
+  public DistributedTracedShardingMessageExtractor(ShardingMessageExtractor<E, M> target) {
+    this.target = target;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public String entityId(Object message) {
+    return target.entityId((E) unwrap(message));
+  }
+
+  @Override
+  public String shardId(String entityId) {
+    return target.shardId(entityId);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public Object unwrapMessage(Object message) {
+    if (message instanceof DistributedTracedMessage) {
+      final DistributedTracedMessage<?> tracedMessage = (DistributedTracedMessage<?>) message;
+      final Object result = target.unwrapMessage((E) tracedMessage.message());
+      if (result instanceof DistributedTracedMessage) {
+        return result;
+      }
+      return tracedMessage.withMessage(result);
+    }
+    return target.unwrapMessage((E) message);
+  }
+
+  private static Object unwrap(Object message) {
+    if (message instanceof DistributedTracedMessage) {
+      return ((DistributedTracedMessage<?>) message).message();
+    }
+    return message;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+
+/**
+ * Live {@link Span} of the sender, carried as is when the recipient runs in the same JVM, the way
+ * {@link TracedMessage} does. Nothing is injected up front: {@link #inject()} is only called if
+ * the message ends up being serialized after all, e.g. when it is forwarded to another node.
+ */
+final class LocalSpanCarrier implements SpanContextCarrier {
+  private final Tracer tracer;
+  private final Span span;
+  private final Propagation propagation;
+
+  LocalSpanCarrier(Tracer tracer, Span span, Propagation propagation) {
+    this.tracer = tracer;
+    this.span = span;
+    this.propagation = propagation;
+  }
+
+  @Override
+  public SpanContext extract(Tracer tracer) {
+    return span.context();
+  }
+
+  SpanContextCarrier inject() {
+    return SpanContextCarrier.inject(tracer, span.context(), propagation);
+  }
+}
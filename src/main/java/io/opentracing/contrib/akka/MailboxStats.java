@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one mailbox created by {@link TracedMailbox} or {@link TracedDequeMailbox}, looked
+ * up through {@link TracedMailboxes}. Enqueues come from any sender thread and only touch a
+ * striped {@link LongAdder}; everything else is updated by the single thread draining the
+ * mailbox.
+ */
+public final class MailboxStats {
+  private final LongAdder enqueued = new LongAdder();
+  private final LongAdder dequeued = new LongAdder();
+  private final LatencyHistogram dwellTime;
+  // Written by the consumer only.
+  private volatile long highWaterMark;
+
+  MailboxStats(boolean dwellTime) {
+    this.dwellTime = dwellTime ? new LatencyHistogram() : null;
+  }
+
+  void onEnqueue() {
+    enqueued.increment();
+  }
+
+  /**
+   * Takes back an enqueue counted for a message a bounded mailbox then rejected.
+   */
+  void onRejected() {
+    enqueued.decrement();
+  }
+
+  void onDequeue() {
+    final long depth = depth();
+    if (depth > highWaterMark) {
+      highWaterMark = depth;
+    }
+    dequeued.increment();
+  }
+
+  public long enqueued() {
+    return enqueued.sum();
+  }
+
+  public long dequeued() {
+    return dequeued.sum();
+  }
+
+  /**
+   * Messages currently waiting, approximated from the counters.
+   */
+  public long depth() {
+    return Math.max(0, enqueued.sum() - dequeued.sum());
+  }
+
+  /**
+   * Largest depth observed when taking a message out of the mailbox.
+   */
+  public long highWaterMark() {
+    return highWaterMark;
+  }
+
+  /**
+   * Time messages spent in the mailbox, or null unless dwell time measurement is enabled
+   * ({@code dwell-time = on}, off by default).
+   */
+  public LatencyHistogram dwellTime() {
+    return dwellTime;
+  }
+
+  @Override
+  public String toString() {
+    return "MailboxStats{" +
+        "enqueued=" + enqueued() +
+        ", dequeued=" + dequeued() +
+        ", highWaterMark=" + highWaterMark +
+        '}';
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides which message classes are traced. {@link TracedMessage} and
+ * {@link DistributedTracedMessage} do not wrap messages of excluded classes, and the traced
+ * actors deliver such messages without a span if they arrive wrapped anyway. The default filter
+ * is read once from {@code opentracing.akka.message-filter} in {@code application.conf}:
+ * <pre>
+ * opentracing.akka.message-filter {
+ *   include = []                            # empty: everything not excluded
+ *   exclude = [
+ *     "com.example.Heartbeat",              # this class and its subclasses
+ *     "com.example.NotTraced",              # classes implementing this marker interface
+ *     "com.example.protocol.*"              # classes of this package and its subpackages
+ *   ]
+ * }
+ * </pre>
+ * A class is traced if it matches an include entry (or the include list is empty) and no exclude
+ * entry. Decisions are computed once per class and cached with a {@link ClassValue}.
+ */
+public final class MessageFilter {
+  /**
+   * Traces every message class.
+   */
+  public static final MessageFilter ALL = new MessageFilter(new String[0], new String[0]);
+
+  private final String[] includes;
+  private final String[] excludes;
+  private final ClassValue<Boolean> decisions = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> messageClass) {
+      return decide(messageClass);
+    }
+  };
+
+  private MessageFilter(String[] includes, String[] excludes) {
+    this.includes = includes;
+    this.excludes = excludes;
+  }
+
+  public static MessageFilter of(List<String> includes, List<String> excludes) {
+    if (includes.isEmpty() && excludes.isEmpty()) {
+      return ALL;
+    }
+    return new MessageFilter(includes.toArray(new String[0]), excludes.toArray(new String[0]));
+  }
+
+  /**
+   * Reads the {@code include} and {@code exclude} lists of {@code config}, both optional.
+   */
+  public static MessageFilter fromConfig(Config config) {
+    return of(strings(config, "include"), strings(config, "exclude"));
+  }
+
+  private static List<String> strings(Config config, String path) {
+    return config.hasPath(path) ? config.getStringList(path) : Collections.emptyList();
+  }
+
+  /**
+   * The filter configured under {@code opentracing.akka.message-filter}, loaded on first use.
+   */
+  public static MessageFilter global() {
+    return Global.FILTER;
+  }
+
+  public boolean isTraced(Class<?> messageClass) {
+    return this == ALL || decisions.get(messageClass);
+  }
+
+  private boolean decide(Class<?> messageClass) {
+    final Set<String> names = typeNames(messageClass);
+    return (includes.length == 0 || matches(includes, messageClass, names))
+        && !matches(excludes, messageClass, names);
+  }
+
+  private static boolean matches(String[] patterns, Class<?> messageClass, Set<String> names) {
+    for (String pattern : patterns) {
+      if (pattern.endsWith(".*")) {
+        if (messageClass.getName().startsWith(pattern.substring(0, pattern.length() - 1))) {
+          return true;
+        }
+      } else if (names.contains(pattern)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Names of {@code type} and of all its superclasses and interfaces, so that entries match
+   * subtypes without loading the classes they name.
+   */
+  private static Set<String> typeNames(Class<?> type) {
+    final Set<String> names = new HashSet<>();
+    final Deque<Class<?>> pending = new ArrayDeque<>();
+    pending.add(type);
+    while (!pending.isEmpty()) {
+      final Class<?> current = pending.poll();
+      if (names.add(current.getName())) {
+        if (current.getSuperclass() != null) {
+          pending.add(current.getSuperclass());
+        }
+        for (Class<?> implemented : current.getInterfaces()) {
+          pending.add(implemented);
+        }
+      }
+    }
+    return names;
+  }
+
+  private static final class Global {
+    private static final MessageFilter FILTER = fromConfig(
+        ConfigFactory.load().getConfig("opentracing.akka.message-filter"));
+  }
+}
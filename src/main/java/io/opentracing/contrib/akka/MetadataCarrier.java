@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+
+/**
+ * Context of a message sent through {@link TracingRemoteInstrument#tell}, travelling in the
+ * Artery envelope metadata rather than in the payload: the serializer writes no headers for it,
+ * and {@link TracingRemoteInstrument} fills in the deserialized instance from the metadata of
+ * the very envelope it arrived in, before it is delivered. The wrapper holding it is what ties
+ * the context to one send.
+ */
+final class MetadataCarrier implements SpanContextCarrier {
+  private SpanContext spanContext;
+
+  MetadataCarrier(SpanContext spanContext) {
+    this.spanContext = spanContext;
+  }
+
+  SpanContext spanContext() {
+    return spanContext;
+  }
+
+  /**
+   * Only called by the Artery decoder, which hands the message over to the recipient's mailbox
+   * afterwards.
+   */
+  void spanContext(SpanContext spanContext) {
+    this.spanContext = spanContext;
+  }
+
+  @Override
+  public SpanContext extract(Tracer tracer) {
+    return spanContext;
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+/**
+ * How {@link DistributedTracedMessage} carries the span context of the sender.
+ */
+public enum Propagation {
+  /**
+   * Injects the context through {@code Format.Builtin.TEXT_MAP_INJECT} as string headers. Supported
+   * by every tracer.
+   */
+  TEXT_MAP,
+
+  /**
+   * Injects the context through {@code Format.Builtin.BINARY_INJECT} into a compact byte buffer.
+   * Smaller on the wire and cheaper to extract, but requires a tracer supporting the binary format.
+   */
+  BINARY
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.Span;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helpers around the enqueue timestamps captured by {@code wrapTimed}. Timestamps come from
+ * {@link System#nanoTime()}, so they are only meaningful in the JVM that took them and are never
+ * serialized; 0 stands for "not captured" (a genuine 0 reading merely loses one sample).
+ */
+final class QueueTime {
+  private QueueTime() {
+  }
+
+  static long now(boolean timed) {
+    return timed ? System.nanoTime() : 0;
+  }
+
+  static long since(long enqueuedNanos) {
+    if (enqueuedNanos == 0) {
+      return -1;
+    }
+    return Math.max(0, System.nanoTime() - enqueuedNanos);
+  }
+
+  /**
+   * Records {@code queueTimeNanos}, if captured, into {@code recorder} and as a tag on
+   * {@code span} (which may be null).
+   */
+  static void report(long queueTimeNanos, QueueTimeRecorder recorder, Span span) {
+    if (queueTimeNanos < 0) {
+      return;
+    }
+    recorder.record(queueTimeNanos);
+    if (span != null) {
+      span.setTag(QueueTimeRecorder.QUEUE_TIME_TAG,
+          TimeUnit.NANOSECONDS.toMicros(queueTimeNanos));
+    }
+  }
+}
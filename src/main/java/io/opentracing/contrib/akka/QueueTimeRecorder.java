@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+/**
+ * Receives the time messages wrapped with {@code wrapTimed} spent between being wrapped and being
+ * received, i.e. mostly waiting in the recipient's mailbox. Called on the receiving actor's
+ * thread, once per timed message, so implementations should be cheap and thread-safe; see
+ * {@link LatencyHistogram}.
+ */
+@FunctionalInterface
+public interface QueueTimeRecorder {
+  /**
+   * Tag holding the queue time, in microseconds, on the "receive" span started by
+   * {@link DistributedTracedActor}. Spans propagated by {@link TracedMessage} belong to the
+   * sender and are not tagged.
+   */
+  String QUEUE_TIME_TAG = "akka.queue_time_us";
+
+  QueueTimeRecorder NOOP = queueTimeNanos -> {
+  };
+
+  void record(long queueTimeNanos);
+}
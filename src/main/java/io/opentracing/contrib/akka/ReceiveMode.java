@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+/**
+ * What {@link DistributedTracedActor} activates while processing a message with a propagated
+ * context.
+ */
+public enum ReceiveMode {
+  /**
+   * Starts, activates and finishes a consumer "receive" span following from the propagated context.
+   */
+  SPAN,
+
+  /**
+   * Only activates the propagated context, wrapped in a span that is never reported, so spans
+   * created while processing the message are parented correctly. No span is started per message.
+   *
+   * <p>Requires a scope manager accepting spans of other implementations, as
+   * {@code ThreadLocalScopeManager} does; with one that does not (e.g. Brave's), this behaves
+   * like {@link #SPAN}, and a warning is logged once through {@code java.util.logging}.
+   */
+  CONTEXT_ONLY
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+/**
+ * Immutable settings of the receive side of {@link DistributedTracedActor}. Actors extending the
+ * {@code DistributedTraced*} base classes pick them up from {@code receiveSettings()}, which
+ * should return a shared instance rather than build one per message:
+ * <pre>
+ * private static final ReceiveSettings SETTINGS =
+ *     ReceiveSettings.DEFAULT.withReceiveMode(ReceiveMode.CONTEXT_ONLY);
+ *
+ * protected ReceiveSettings receiveSettings() {
+ *   return SETTINGS;
+ * }
+ * </pre>
+ */
+public final class ReceiveSettings {
+  public static final ReceiveSettings DEFAULT =
+      new ReceiveSettings(SamplingPolicy.ALWAYS, ReceiveMode.SPAN, SpanNaming.DEFAULT,
+          QueueTimeRecorder.NOOP, SpanGovernor.UNLIMITED);
+
+  private final SamplingPolicy samplingPolicy;
+  private final ReceiveMode receiveMode;
+  private final SpanNaming spanNaming;
+  private final ClassValue<ReceiveSpanTemplate> spanTemplates;
+  private final QueueTimeRecorder queueTimeRecorder;
+  private final SpanGovernor spanGovernor;
+
+  private ReceiveSettings(SamplingPolicy samplingPolicy, ReceiveMode receiveMode,
+      SpanNaming spanNaming, QueueTimeRecorder queueTimeRecorder, SpanGovernor spanGovernor) {
+    this.samplingPolicy = samplingPolicy;
+    this.receiveMode = receiveMode;
+    this.spanNaming = spanNaming;
+    this.queueTimeRecorder = queueTimeRecorder;
+    this.spanGovernor = spanGovernor;
+    this.spanTemplates = spanNaming == SpanNaming.DEFAULT ? null
+        : ReceiveSpanTemplate.cache(spanNaming);
+  }
+
+  public SamplingPolicy samplingPolicy() {
+    return samplingPolicy;
+  }
+
+  public ReceiveMode receiveMode() {
+    return receiveMode;
+  }
+
+  public SpanNaming spanNaming() {
+    return spanNaming;
+  }
+
+  public QueueTimeRecorder queueTimeRecorder() {
+    return queueTimeRecorder;
+  }
+
+  public SpanGovernor spanGovernor() {
+    return spanGovernor;
+  }
+
+  ReceiveSpanTemplate spanTemplate(Class<?> messageClass) {
+    return spanTemplates == null ? ReceiveSpanTemplate.DEFAULT : spanTemplates.get(messageClass);
+  }
+
+  public ReceiveSettings withSamplingPolicy(SamplingPolicy samplingPolicy) {
+    if (samplingPolicy == null) {
+      throw new IllegalArgumentException("samplingPolicy cannot be null");
+    }
+    return new ReceiveSettings(samplingPolicy, receiveMode, spanNaming, queueTimeRecorder,
+        spanGovernor);
+  }
+
+  public ReceiveSettings withReceiveMode(ReceiveMode receiveMode) {
+    if (receiveMode == null) {
+      throw new IllegalArgumentException("receiveMode cannot be null");
+    }
+    return new ReceiveSettings(samplingPolicy, receiveMode, spanNaming, queueTimeRecorder,
+        spanGovernor);
+  }
+
+  /**
+   * Names and tags "receive" spans with {@code spanNaming}, evaluated once per message class.
+   */
+  public ReceiveSettings withSpanNaming(SpanNaming spanNaming) {
+    if (spanNaming == null) {
+      throw new IllegalArgumentException("spanNaming cannot be null");
+    }
+    return new ReceiveSettings(samplingPolicy, receiveMode, spanNaming, queueTimeRecorder,
+        spanGovernor);
+  }
+
+  /**
+   * Reports the mailbox wait of messages wrapped with {@code DistributedTracedMessage.wrapTimed}
+   * to {@code queueTimeRecorder}, and as a tag on the "receive" span.
+   */
+  public ReceiveSettings withQueueTimeRecorder(QueueTimeRecorder queueTimeRecorder) {
+    if (queueTimeRecorder == null) {
+      throw new IllegalArgumentException("queueTimeRecorder cannot be null");
+    }
+    return new ReceiveSettings(samplingPolicy, receiveMode, spanNaming, queueTimeRecorder,
+        spanGovernor);
+  }
+
+  /**
+   * Bounds the rate of "receive" spans with {@code spanGovernor}, falling back to
+   * {@link ReceiveMode#CONTEXT_ONLY} once its budget is spent.
+   */
+  public ReceiveSettings withSpanGovernor(SpanGovernor spanGovernor) {
+    if (spanGovernor == null) {
+      throw new IllegalArgumentException("spanGovernor cannot be null");
+    }
+    return new ReceiveSettings(samplingPolicy, receiveMode, spanNaming, queueTimeRecorder,
+        spanGovernor);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.References;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.tag.Tags;
+import java.util.Map;
+
+/**
+ * Operation name and static tags of the "receive" spans for one message class, resolved once from
+ * a {@link SpanNaming}.
+ */
+final class ReceiveSpanTemplate {
+  static final ReceiveSpanTemplate DEFAULT = new ReceiveSpanTemplate("receive", new String[0]);
+
+  private final String operationName;
+  private final String[] tags;
+
+  private ReceiveSpanTemplate(String operationName, String[] tags) {
+    this.operationName = operationName;
+    this.tags = tags;
+  }
+
+  static ClassValue<ReceiveSpanTemplate> cache(final SpanNaming spanNaming) {
+    return new ClassValue<ReceiveSpanTemplate>() {
+      @Override
+      protected ReceiveSpanTemplate computeValue(Class<?> messageClass) {
+        return of(spanNaming, messageClass);
+      }
+    };
+  }
+
+  static ReceiveSpanTemplate of(SpanNaming spanNaming, Class<?> messageClass) {
+    final Map<String, String> tagMap = spanNaming.tags(messageClass);
+    final String[] tags = new String[tagMap.size() * 2];
+    int i = 0;
+    for (Map.Entry<String, String> tag : tagMap.entrySet()) {
+      tags[i++] = tag.getKey();
+      tags[i++] = tag.getValue();
+    }
+    return new ReceiveSpanTemplate(spanNaming.operationName(messageClass), tags);
+  }
+
+  String operationName() {
+    return operationName;
+  }
+
+  Span start(Tracer tracer, SpanContext context, ActorTags actorTags) {
+    Tracer.SpanBuilder spanBuilder = tracer.buildSpan(operationName)
+        .ignoreActiveSpan()
+        .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CONSUMER)
+        .withTag(Tags.COMPONENT, "java-akka");
+
+    for (int i = 0; i < tags.length; i += 2) {
+      spanBuilder = spanBuilder.withTag(tags[i], tags[i + 1]);
+    }
+    spanBuilder = actorTags.applyTo(spanBuilder);
+    if (context != null) {
+      spanBuilder = spanBuilder.addReference(References.FOLLOWS_FROM, context);
+    }
+    return spanBuilder.start();
+  }
+}
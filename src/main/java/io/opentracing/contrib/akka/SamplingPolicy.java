@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.SpanContext;
+
+/**
+ * Tells whether a span context is sampled. OpenTracing does not expose the sampling decision, so
+ * this is usually implemented against the concrete tracer, e.g. for Jaeger:
+ * <pre>
+ * SamplingPolicy policy = context -&gt; ((JaegerSpanContext) context).isSampled();
+ * </pre>
+ *
+ * <p>{@link DistributedTracedMessage} and {@link TraceCarrier} given a policy do not inject
+ * unsampled contexts: the wrapper only carries the sampling decision, and, within the JVM, the
+ * live context. {@link DistributedTracedActor} does not build a "receive" span for such a message,
+ * nor for an incoming context reported as unsampled (see
+ * {@link ReceiveSettings#withSamplingPolicy}): it only activates the context, as in
+ * {@link ReceiveMode#CONTEXT_ONLY}, so spans started by the actor keep the decision. A context
+ * that went through serialization unsampled is not restored.
+ */
+@FunctionalInterface
+public interface SamplingPolicy {
+  SamplingPolicy ALWAYS = spanContext -> true;
+
+  boolean isSampled(SpanContext spanContext);
+}
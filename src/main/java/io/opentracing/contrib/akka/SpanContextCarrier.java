@@ -0,0 +1,32 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+
+/**
+ * Immutable, propagated form of a {@link SpanContext} held by a {@link DistributedTracedMessage}.
+ */
+interface SpanContextCarrier {
+  SpanContext extract(Tracer tracer);
+
+  static SpanContextCarrier inject(Tracer tracer, SpanContext spanContext,
+      Propagation propagation) {
+    if (propagation == Propagation.BINARY) {
+      return BinaryCarrier.inject(tracer, spanContext);
+    }
+    return TextMapCarrier.inject(tracer, spanContext);
+  }
+}
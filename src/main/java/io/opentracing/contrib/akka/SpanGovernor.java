@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket bounding how many "receive" spans {@link DistributedTracedActor} starts
+ * per second. Once the budget is spent, messages fall back to {@link ReceiveMode#CONTEXT_ONLY}:
+ * the propagated context is still activated, so traces stay connected, but no span is started or
+ * reported. Scope managers accepting only their own spans cannot activate the bare context, so
+ * with them shed messages are delivered without any context, and the bound still holds. Meant to
+ * be shared by all actors of an actor system:
+ * <pre>
+ * static final SpanGovernor GOVERNOR = SpanGovernor.perSecond(10_000);
+ * static final ReceiveSettings SETTINGS = ReceiveSettings.DEFAULT.withSpanGovernor(GOVERNOR);
+ * </pre>
+ *
+ * <p>The bucket starts full, holds up to one second worth of spans and is tracked as a virtual
+ * clock (GCRA) in a single {@link AtomicLong}. Once empty it is only read, never
+ * written, so a traffic storm does not turn it into a contention point.
+ */
+public final class SpanGovernor {
+  public static final SpanGovernor UNLIMITED = new SpanGovernor(0);
+
+  private final long intervalNanos;
+  private final long burstNanos;
+  // Virtual clock advanced by intervalNanos per span, never behind now - burstNanos.
+  private final AtomicLong nextNanos;
+  private final LongAdder degraded = new LongAdder();
+
+  private SpanGovernor(long intervalNanos) {
+    this.intervalNanos = intervalNanos;
+    this.burstNanos = TimeUnit.SECONDS.toNanos(1);
+    this.nextNanos = new AtomicLong(System.nanoTime() - burstNanos);
+  }
+
+  public static SpanGovernor perSecond(int spansPerSecond) {
+    if (spansPerSecond <= 0) {
+      throw new IllegalArgumentException("spansPerSecond must be positive");
+    }
+    return new SpanGovernor(Math.max(1, TimeUnit.SECONDS.toNanos(1) / spansPerSecond));
+  }
+
+  /**
+   * Takes one span from the budget, returning false (and counting a degradation) if none is left.
+   */
+  public boolean tryAcquire() {
+    if (intervalNanos == 0) {
+      return true;
+    }
+    while (true) {
+      final long now = System.nanoTime();
+      final long next = nextNanos.get();
+      final long updated = Math.max(next, now - burstNanos) + intervalNanos;
+      if (updated - now > 0) {
+        degraded.increment();
+        return false;
+      }
+      if (nextNanos.compareAndSet(next, updated)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Number of messages handled without a "receive" span because the budget was spent.
+   */
+  public long degraded() {
+    return degraded.sum();
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Names and tags the "receive" spans started by {@link DistributedTracedActor}, by message class.
+ * Results are computed once per class and cached (see {@link ReceiveSettings#withSpanNaming}), so
+ * implementations may concatenate strings or reflect freely.
+ */
+@FunctionalInterface
+public interface SpanNaming {
+  /**
+   * Names every span "receive" and adds no tags.
+   */
+  SpanNaming DEFAULT = messageClass -> "receive";
+
+  /**
+   * Names spans after the message class, e.g. "receive:OrderPlaced".
+   */
+  SpanNaming MESSAGE_CLASS = messageClass -> "receive:" + messageClass.getSimpleName();
+
+  String operationName(Class<?> messageClass);
+
+  /**
+   * Tags added to every span for a message of {@code messageClass}.
+   */
+  default Map<String, String> tags(Class<?> messageClass) {
+    return Collections.emptyMap();
+  }
+}
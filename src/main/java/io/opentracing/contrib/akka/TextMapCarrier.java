@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.propagation.TextMapExtract;
+import io.opentracing.propagation.TextMapInject;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable propagation headers stored as an exactly-sized, flat {@code [key0, value0, key1,
+ * value1, ...]} array. Keys are interned, so the key strings are shared by every carrier instead
+ * of being retained once per queued message.
+ */
+final class TextMapCarrier implements SpanContextCarrier, TextMapExtract {
+  private static final String[] EMPTY = new String[0];
+
+  private final String[] keyValues;
+
+  TextMapCarrier(String[] keyValues) {
+    this.keyValues = keyValues;
+  }
+
+  static TextMapCarrier inject(Tracer tracer, SpanContext spanContext) {
+    final Injector injector = new Injector();
+    tracer.inject(spanContext, Format.Builtin.TEXT_MAP_INJECT, injector);
+    return new TextMapCarrier(injector.toArray());
+  }
+
+  int size() {
+    return keyValues.length >> 1;
+  }
+
+  String key(int index) {
+    return keyValues[index << 1];
+  }
+
+  String value(int index) {
+    return keyValues[(index << 1) + 1];
+  }
+
+  @Override
+  public SpanContext extract(Tracer tracer) {
+    return tracer.extract(Format.Builtin.TEXT_MAP_EXTRACT, this);
+  }
+
+  @Override
+  public Iterator<Map.Entry<String, String>> iterator() {
+    return new Iterator<Map.Entry<String, String>>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < keyValues.length;
+      }
+
+      @Override
+      public Map.Entry<String, String> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        final Map.Entry<String, String> entry =
+            new AbstractMap.SimpleImmutableEntry<>(keyValues[next], keyValues[next + 1]);
+        next += 2;
+        return entry;
+      }
+    };
+  }
+
+  private static final class Injector implements TextMapInject {
+    private String[] keyValues = EMPTY;
+    private int length;
+
+    @Override
+    public void put(String key, String value) {
+      for (int i = 0; i < length; i += 2) {
+        if (keyValues[i].equals(key)) {
+          keyValues[i + 1] = value;
+          return;
+        }
+      }
+      if (length == keyValues.length) {
+        keyValues = Arrays.copyOf(keyValues, Math.max(8, length << 1));
+      }
+      keyValues[length++] = key.intern();
+      keyValues[length++] = value;
+    }
+
+    String[] toArray() {
+      return length == keyValues.length ? keyValues : Arrays.copyOf(keyValues, length);
+    }
+  }
+}
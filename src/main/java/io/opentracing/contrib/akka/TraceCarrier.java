@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.util.GlobalTracer;
+
+/**
+ * Span context injected once and shared by any number of {@link DistributedTracedMessage}s, for
+ * sending one event to many actors. {@link DistributedTracedMessage#wrap} injects into fresh
+ * headers on every call, while all the wrappers of a {@code TraceCarrier} hold the same immutable
+ * headers:
+ * <pre>
+ * TraceCarrier carrier = TraceCarrier.of(tracer, tracer.activeSpan());
+ * for (ActorRef entity : entities) {
+ *   entity.tell(carrier.wrap(event), self);
+ * }
+ * </pre>
+ * Without a span, nothing is injected and {@link #wrap} returns messages as they are. With one
+ * rejected by the sampling policy, nothing is injected either, and the wrappers only carry the
+ * sampling decision.
+ */
+public final class TraceCarrier {
+  /**
+   * Carries nothing: {@link #wrap} returns messages unwrapped.
+   */
+  public static final TraceCarrier EMPTY = new TraceCarrier(null);
+
+  private final SpanContextCarrier carrier;
+
+  private TraceCarrier(SpanContextCarrier carrier) {
+    this.carrier = carrier;
+  }
+
+  public static TraceCarrier of(Span activeSpan) {
+    return of(GlobalTracer.get(), activeSpan);
+  }
+
+  public static TraceCarrier of(Tracer tracer, Span activeSpan) {
+    return of(tracer, activeSpan, Propagation.TEXT_MAP, SamplingPolicy.ALWAYS);
+  }
+
+  public static TraceCarrier of(Tracer tracer, Span activeSpan, Propagation propagation) {
+    return of(tracer, activeSpan, propagation, SamplingPolicy.ALWAYS);
+  }
+
+  public static TraceCarrier of(Tracer tracer, Span activeSpan, Propagation propagation,
+      SamplingPolicy samplingPolicy) {
+    if (tracer == null) {
+      throw new IllegalArgumentException("tracer cannot be null");
+    }
+    if (propagation == null) {
+      throw new IllegalArgumentException("propagation cannot be null");
+    }
+    if (samplingPolicy == null) {
+      throw new IllegalArgumentException("samplingPolicy cannot be null");
+    }
+    if (activeSpan == null) {
+      return EMPTY;
+    }
+    if (!samplingPolicy.isSampled(activeSpan.context())) {
+      return new TraceCarrier(new UnsampledCarrier(activeSpan.context()));
+    }
+    return new TraceCarrier(SpanContextCarrier.inject(tracer, activeSpan.context(), propagation));
+  }
+
+  public boolean isEmpty() {
+    return carrier == null;
+  }
+
+  /**
+   * Wraps {@code message} in a {@link DistributedTracedMessage} sharing this carrier, or returns it
+   * as is if this carrier is empty or its class is excluded by {@link MessageFilter#global()}.
+   */
+  public <T> Object wrap(T message) {
+    return wrap(message, false);
+  }
+
+  /**
+   * Same as {@link #wrap(Object)}, also recording when the message was wrapped, see
+   * {@link DistributedTracedMessage#wrapTimed(Tracer, Span, Object)}.
+   */
+  public <T> Object wrapTimed(T message) {
+    return wrap(message, true);
+  }
+
+  private <T> Object wrap(T message, boolean timed) {
+    if (message == null) {
+      throw new IllegalArgumentException("message cannot be null");
+    }
+    if (carrier == null || !MessageFilter.global().isTraced(message.getClass())) {
+      return message;
+    }
+    return new DistributedTracedMessage<>(message, carrier, QueueTime.now(timed));
+  }
+}
@@ -14,16 +14,25 @@
 package io.opentracing.contrib.akka;
 
 import akka.actor.AbstractActor;
+import akka.actor.ActorSystem;
 import io.opentracing.Tracer;
-import io.opentracing.util.GlobalTracer;
+import java.util.function.BiConsumer;
 import scala.PartialFunction;
 import scala.runtime.BoxedUnit;
 
 public abstract class TracedAbstractActor extends AbstractActor implements TracedActor {
   Tracer tracer;
+  private final BiConsumer<PartialFunction<Object, BoxedUnit>, Object> superAroundReceive =
+      super::aroundReceive;
+  private ActorTags actorTags = ActorTags.EMPTY;
+  private TracingToggle tracingToggle = TracingToggle.ALWAYS;
+  private QueueTimeRecorder queueTimeRecorder = QueueTimeRecorder.NOOP;
 
+  /**
+   * Uses the tracer of the {@link AkkaTracing} extension, i.e. {@code GlobalTracer}.
+   */
   public TracedAbstractActor() {
-    this(GlobalTracer.get());
+    this.tracer = AkkaTracing.get(getContext().getSystem()).tracer();
   }
 
   public TracedAbstractActor(Tracer tracer) {
@@ -34,8 +43,48 @@ public abstract class TracedAbstractActor extends AbstractActor implements Trace
     return tracer;
   }
 
+  /**
+   * Tags of this actor, rendered once when it starts. Propagated spans belong to the sender and
+   * are activated untouched; tag the spans this actor starts itself with
+   * {@code actorTags().applyTo(tracer().buildSpan(...))}.
+   */
+  protected ActorTags actorTags() {
+    return actorTags;
+  }
+
+  /**
+   * Receives the mailbox wait of messages wrapped with {@link TracedMessage#wrapTimed}, by
+   * default the histogram of the {@link AkkaTracing} extension if {@code queue-time} is on.
+   */
+  protected QueueTimeRecorder queueTimeRecorder() {
+    return queueTimeRecorder;
+  }
+
+  @Override
+  public void aroundPreStart() {
+    startTracing();
+    super.aroundPreStart();
+  }
+
+  @Override
+  public void aroundPostRestart(Throwable reason) {
+    startTracing();
+    super.aroundPostRestart(reason);
+  }
+
+  private void startTracing() {
+    final ActorSystem system = getContext().getSystem();
+    actorTags = ActorTags.of(getContext());
+    tracingToggle = TracingToggle.of(TracingSwitch.get(system), getClass(), actorTags);
+    queueTimeRecorder = AkkaTracing.get(system).queueTimeRecorder();
+  }
+
   @Override
   public void aroundReceive(PartialFunction<Object, BoxedUnit> receive, Object message) {
-    Utils.aroundReceive(super::aroundReceive, tracer(), receive, message);
+    if (!tracingToggle.enabled()) {
+      super.aroundReceive(receive, Utils.untraced(message));
+      return;
+    }
+    Utils.aroundReceive(superAroundReceive, tracer(), queueTimeRecorder(), receive, message);
   }
 }
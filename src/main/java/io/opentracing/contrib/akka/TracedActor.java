@@ -26,9 +26,31 @@ public interface TracedActor extends Actor {
     private Utils() {
     }
 
+    /**
+     * Delivers {@code message} through {@code superConsumer}, unwrapping it first if traced.
+     * Callers on the message path should pass a consumer bound once per actor (e.g. a field
+     * holding {@code super::aroundReceive}) rather than a fresh method reference per call, so
+     * untraced messages go through without allocating.
+     */
     public static void aroundReceive(
         BiConsumer<PartialFunction<Object, BoxedUnit>, Object> superConsumer, Tracer tracer,
         PartialFunction<Object, BoxedUnit> receive, Object message) {
+      aroundReceive(superConsumer, tracer, QueueTimeRecorder.NOOP, receive, message);
+    }
+
+    /**
+     * Same as {@link #aroundReceive(BiConsumer, Tracer, PartialFunction, Object)}, reporting the
+     * mailbox wait of messages wrapped with {@code TracedMessage.wrapTimed} to
+     * {@code queueTimeRecorder}.
+     *
+     * <p>The propagated span belongs to the sender and may be shared by several receivers, so
+     * neither {@link ActorTags} nor the queue time are set on it; actors can add the former to
+     * the spans they start from {@code actorTags()}.
+     */
+    public static void aroundReceive(
+        BiConsumer<PartialFunction<Object, BoxedUnit>, Object> superConsumer, Tracer tracer,
+        QueueTimeRecorder queueTimeRecorder, PartialFunction<Object, BoxedUnit> receive,
+        Object message) {
       if (!(message instanceof TracedMessage)) {
         superConsumer.accept(receive, message);
         return;
@@ -37,10 +59,25 @@ public interface TracedActor extends Actor {
       final TracedMessage<?> tracedMessage = (TracedMessage<?>) message;
       final Span span = tracedMessage.activeSpan();
       final Object originalMessage = tracedMessage.message();
+      if (!MessageFilter.global().isTraced(originalMessage.getClass())) {
+        superConsumer.accept(receive, originalMessage);
+        return;
+      }
+      QueueTime.report(tracedMessage.queueTimeNanos(), queueTimeRecorder, null);
 
-      try (Scope ignored = tracer.scopeManager().activate(span)) {
+      try (Scope ignored = ActorScopeManager.activateOnce(tracer.scopeManager(), span)) {
         superConsumer.accept(receive, originalMessage);
       }
     }
+
+    /**
+     * Returns the message to deliver when tracing is disabled for the receiving actor.
+     */
+    static Object untraced(Object message) {
+      if (message instanceof TracedMessage) {
+        return ((TracedMessage<?>) message).message();
+      }
+      return message;
+    }
   }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.javadsl.Adapter;
+import akka.actor.typed.javadsl.Behaviors;
+import io.opentracing.Tracer;
+import io.opentracing.util.GlobalTracer;
+
+/**
+ * Tracing for Akka Typed. Behaviors wrapped with {@link #traced(Behavior)} accept both their own
+ * messages and traced wrappers of them, hence their {@code Object} message type; narrow it back
+ * once spawned:
+ * <pre>
+ * ActorRef&lt;Command&gt; ref = context.spawn(TracedBehaviors.traced(behavior), "orders").narrow();
+ * TracedBehaviors.tell(ref, new PlaceOrder(...)); // wrapped with the active span
+ * </pre>
+ */
+public final class TracedBehaviors {
+  private TracedBehaviors() {
+  }
+
+  /**
+   * Traces {@code behavior} with the tracer and {@link ReceiveSettings} of {@link AkkaTracing}.
+   */
+  public static <T> Behavior<Object> traced(Behavior<T> behavior) {
+    return Behaviors.intercept(() -> new TracingBehaviorInterceptor<T>(null, null), behavior);
+  }
+
+  public static <T> Behavior<Object> traced(Tracer tracer, ReceiveSettings settings,
+      Behavior<T> behavior) {
+    if (tracer == null) {
+      throw new IllegalArgumentException("tracer cannot be null");
+    }
+    if (settings == null) {
+      throw new IllegalArgumentException("settings cannot be null");
+    }
+    return Behaviors.intercept(() -> new TracingBehaviorInterceptor<T>(tracer, settings),
+        behavior);
+  }
+
+  /**
+   * Sends {@code message} to a behavior created with {@link #traced(Behavior)}, wrapped in a
+   * {@link DistributedTracedMessage} carrying the active span of {@link GlobalTracer} (see
+   * {@link DistributedTracedMessage#wrap(Tracer, io.opentracing.Span, Object,
+   * akka.actor.ActorRef)}).
+   */
+  public static <T> void tell(ActorRef<T> target, T message) {
+    tell(GlobalTracer.get(), target, message);
+  }
+
+  public static <T> void tell(Tracer tracer, ActorRef<T> target, T message) {
+    final Object wrapped = DistributedTracedMessage.wrap(tracer, tracer.activeSpan(), message,
+        Adapter.toClassic(target));
+    target.<Object>unsafeUpcast().tell(wrapped);
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.dispatch.MailboxType;
+import akka.dispatch.MessageQueue;
+import akka.dispatch.ProducesMessageQueue;
+import akka.dispatch.UnboundedDequeBasedMailbox;
+import com.typesafe.config.Config;
+import scala.Option;
+
+/**
+ * Unbounded deque-based variant of {@link TracedMailbox}, satisfying the mailbox requirements of
+ * the {@code *WithStash}, {@code *WithUnboundedStash} and {@code *WithUnrestrictedStash} actors.
+ * Selected with {@code Props.withMailbox("opentracing.akka.traced-deque-mailbox")}.
+ */
+public final class TracedDequeMailbox implements MailboxType,
+    ProducesMessageQueue<TracedDequeMessageQueue> {
+  private final MailboxType delegate = new UnboundedDequeBasedMailbox();
+  private final boolean dwellTime;
+
+  public TracedDequeMailbox(ActorSystem.Settings settings, Config config) {
+    this.dwellTime = TracedMailbox.dwellTime(config);
+  }
+
+  @Override
+  public MessageQueue create(Option<ActorRef> owner, Option<ActorSystem> system) {
+    final MailboxStats stats = TracedMailbox.register(owner, system, dwellTime);
+    return new TracedDequeMessageQueue(delegate.create(owner, system), stats,
+        system.isDefined() ? system.get() : null, dwellTime);
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.dispatch.DequeBasedMessageQueueSemantics;
+import akka.dispatch.Envelope;
+import akka.dispatch.MessageQueue;
+import akka.dispatch.UnboundedDequeBasedMessageQueueSemantics;
+
+/**
+ * {@link TracedMessageQueue} over a deque-based queue, as required by stashing actors. Unstashed
+ * messages count as enqueued again, and their dwell time restarts.
+ */
+final class TracedDequeMessageQueue extends TracedMessageQueue implements
+    UnboundedDequeBasedMessageQueueSemantics {
+
+  TracedDequeMessageQueue(MessageQueue delegate, MailboxStats stats, ActorSystem system,
+      boolean dwellTime) {
+    super(delegate, stats, system, dwellTime);
+  }
+
+  @Override
+  public void enqueueFirst(ActorRef receiver, Envelope handle) {
+    stats.onEnqueue();
+    ((DequeBasedMessageQueueSemantics) delegate).enqueueFirst(receiver, stamp(handle));
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.Tracer;
+import io.opentracing.util.GlobalTracer;
+import scala.concurrent.ExecutionContextExecutor;
+
+/**
+ * {@link ExecutionContextExecutor} running each task with the span that was active when it was
+ * submitted, so that Scala futures, {@code Patterns.pipe} and other callbacks scheduled from a
+ * traced actor keep its span:
+ * <pre>
+ * ExecutionContextExecutor ec = TracedExecutionContext.wrap(getContext().getDispatcher());
+ * pipe(ask(actorRef, message, timeout), ec).to(getSender());
+ * </pre>
+ * Tasks submitted with no active span are passed to the delegate as is.
+ */
+public final class TracedExecutionContext implements ExecutionContextExecutor {
+  private final Tracer tracer;
+  private final ExecutionContextExecutor delegate;
+
+  private TracedExecutionContext(Tracer tracer, ExecutionContextExecutor delegate) {
+    this.tracer = tracer;
+    this.delegate = delegate;
+  }
+
+  public static ExecutionContextExecutor wrap(ExecutionContextExecutor delegate) {
+    return wrap(GlobalTracer.get(), delegate);
+  }
+
+  public static ExecutionContextExecutor wrap(Tracer tracer, ExecutionContextExecutor delegate) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("delegate cannot be null");
+    }
+    if (delegate instanceof TracedExecutionContext) {
+      return delegate;
+    }
+    return new TracedExecutionContext(tracer, delegate);
+  }
+
+  @Override
+  public void execute(Runnable runnable) {
+    delegate.execute(TracedRunnable.capture(tracer, runnable));
+  }
+
+  @Override
+  public void reportFailure(Throwable cause) {
+    delegate.reportFailure(cause);
+  }
+}
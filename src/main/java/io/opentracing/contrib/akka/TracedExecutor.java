@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.Tracer;
+import io.opentracing.util.GlobalTracer;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link Executor} running each task with the span that was active when it was submitted, e.g.
+ * for {@code CompletionStage} callbacks:
+ * <pre>
+ * Executor executor = TracedExecutor.wrap(getContext().getDispatcher());
+ * ask(actorRef, message, timeout).thenApplyAsync(this::handle, executor);
+ * </pre>
+ * Tasks submitted with no active span are passed to the delegate as is.
+ */
+public final class TracedExecutor implements Executor {
+  private final Tracer tracer;
+  private final Executor delegate;
+
+  private TracedExecutor(Tracer tracer, Executor delegate) {
+    this.tracer = tracer;
+    this.delegate = delegate;
+  }
+
+  public static Executor wrap(Executor delegate) {
+    return wrap(GlobalTracer.get(), delegate);
+  }
+
+  public static Executor wrap(Tracer tracer, Executor delegate) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("delegate cannot be null");
+    }
+    if (delegate instanceof TracedExecutor) {
+      return delegate;
+    }
+    return new TracedExecutor(tracer, delegate);
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    delegate.execute(TracedRunnable.capture(tracer, command));
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ActorSystem;
+import akka.dispatch.Dispatchers;
+import akka.routing.BroadcastRoutingLogic;
+import akka.routing.GroupBase;
+import akka.routing.Router;
+import akka.routing.ScatterGatherFirstCompletedRoutingLogic;
+import io.opentracing.Tracer;
+import io.opentracing.util.GlobalTracer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import scala.concurrent.duration.FiniteDuration;
+
+/**
+ * Router group routing with a {@link TracedRoutingLogic}, the traced counterpart of
+ * {@code BroadcastGroup} and {@code ScatterGatherFirstCompletedGroup}:
+ * <pre>
+ * ActorRef router = system.actorOf(
+ *     TracedGroup.broadcast(paths).withRouteSpan(true).props(), "router");
+ * router.tell(DistributedTracedMessage.wrap(message), self);
+ * </pre>
+ *
+ * <p>The group holds its {@link TracedRoutingLogic}, and with it a {@link Tracer}, so it is
+ * local-only: it cannot be serialized, and thus cannot be used for remote deployment or
+ * configured through {@code akka.actor.deployment}.
+ */
+@SuppressWarnings("serial")
+public final class TracedGroup extends GroupBase {
+  private final List<String> paths;
+  private final TracedRoutingLogic logic;
+  private final String routerDispatcher;
+
+  private TracedGroup(List<String> paths, TracedRoutingLogic logic, String routerDispatcher) {
+    this.paths = paths;
+    this.logic = logic;
+    this.routerDispatcher = routerDispatcher;
+  }
+
+  public static TracedGroup of(Iterable<String> paths, TracedRoutingLogic logic) {
+    if (paths == null) {
+      throw new IllegalArgumentException("paths cannot be null");
+    }
+    if (logic == null) {
+      throw new IllegalArgumentException("logic cannot be null");
+    }
+    final List<String> copy = new ArrayList<>();
+    paths.forEach(copy::add);
+    return new TracedGroup(Collections.unmodifiableList(copy), logic,
+        Dispatchers.DefaultDispatcherId());
+  }
+
+  public static TracedGroup broadcast(Iterable<String> paths) {
+    return broadcast(GlobalTracer.get(), paths);
+  }
+
+  public static TracedGroup broadcast(Tracer tracer, Iterable<String> paths) {
+    return of(paths, new TracedRoutingLogic(tracer, new BroadcastRoutingLogic()));
+  }
+
+  public static TracedGroup scatterGatherFirstCompleted(Iterable<String> paths,
+      Duration within) {
+    return scatterGatherFirstCompleted(GlobalTracer.get(), paths, within);
+  }
+
+  public static TracedGroup scatterGatherFirstCompleted(Tracer tracer, Iterable<String> paths,
+      Duration within) {
+    if (within == null) {
+      throw new IllegalArgumentException("within cannot be null");
+    }
+    return of(paths, new TracedRoutingLogic(tracer, new ScatterGatherFirstCompletedRoutingLogic(
+        new FiniteDuration(within.toNanos(), TimeUnit.NANOSECONDS))));
+  }
+
+  public TracedGroup withRouteSpan(boolean routeSpan) {
+    return new TracedGroup(paths, logic.withRouteSpan(routeSpan), routerDispatcher);
+  }
+
+  public TracedGroup withDispatcher(String dispatcherId) {
+    if (dispatcherId == null) {
+      throw new IllegalArgumentException("dispatcherId cannot be null");
+    }
+    return new TracedGroup(paths, logic, dispatcherId);
+  }
+
+  public TracedRoutingLogic logic() {
+    return logic;
+  }
+
+  @Override
+  public Iterable<String> getPaths(ActorSystem system) {
+    return paths;
+  }
+
+  @Override
+  public Router createRouter(ActorSystem system) {
+    return new Router(logic);
+  }
+
+  @Override
+  public String routerDispatcher() {
+    return routerDispatcher;
+  }
+}
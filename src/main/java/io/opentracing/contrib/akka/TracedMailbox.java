@@ -0,0 +1,75 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.dispatch.BoundedMailbox;
+import akka.dispatch.MailboxType;
+import akka.dispatch.MessageQueue;
+import akka.dispatch.ProducesMessageQueue;
+import akka.dispatch.UnboundedMailbox;
+import com.typesafe.config.Config;
+import java.util.concurrent.TimeUnit;
+import scala.Option;
+import scala.concurrent.duration.FiniteDuration;
+
+/**
+ * Mailbox keeping {@link MailboxStats} (enqueue/dequeue counts, high-water mark and, with
+ * {@code dwell-time = on}, dwell time) for its actor, published through
+ * {@link TracedMailboxes}. It wraps an unbounded mailbox, or a bounded one when
+ * {@code bounded = on}, and is configured like any other mailbox:
+ * <pre>
+ * my-dispatcher.mailbox-type = "io.opentracing.contrib.akka.TracedMailbox"
+ * </pre>
+ * or selected with {@code Props.withMailbox("opentracing.akka.traced-mailbox")}. Stashing actors
+ * need {@link TracedDequeMailbox} instead.
+ */
+public final class TracedMailbox implements MailboxType,
+    ProducesMessageQueue<TracedMessageQueue> {
+  private final MailboxType delegate;
+  private final boolean dwellTime;
+
+  public TracedMailbox(ActorSystem.Settings settings, Config config) {
+    if (config.hasPath("bounded") && config.getBoolean("bounded")) {
+      this.delegate = new BoundedMailbox(config.getInt("mailbox-capacity"),
+          FiniteDuration.create(
+              config.getDuration("mailbox-push-timeout-time", TimeUnit.NANOSECONDS),
+              TimeUnit.NANOSECONDS));
+    } else {
+      this.delegate = new UnboundedMailbox();
+    }
+    this.dwellTime = dwellTime(config);
+  }
+
+  @Override
+  public MessageQueue create(Option<ActorRef> owner, Option<ActorSystem> system) {
+    final MailboxStats stats = register(owner, system, dwellTime);
+    return new TracedMessageQueue(delegate.create(owner, system), stats,
+        system.isDefined() ? system.get() : null, dwellTime);
+  }
+
+  static boolean dwellTime(Config config) {
+    return config.hasPath("dwell-time") && config.getBoolean("dwell-time");
+  }
+
+  static MailboxStats register(Option<ActorRef> owner, Option<ActorSystem> system,
+      boolean dwellTime) {
+    final MailboxStats stats = new MailboxStats(dwellTime && system.isDefined());
+    if (owner.isDefined() && system.isDefined()) {
+      TracedMailboxes.get(system.get()).register(owner.get(), stats);
+    }
+    return stats;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.AbstractExtensionId;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Extension;
+import akka.actor.ExtensionId;
+import akka.actor.ExtensionIdProvider;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Actor system extension publishing the {@link MailboxStats} of the actors running with a traced
+ * mailbox. Mailboxes register when created and unregister when their actor terminates.
+ * <pre>
+ * MailboxStats stats = TracedMailboxes.get(system).stats(actorRef);
+ * </pre>
+ */
+public final class TracedMailboxes implements Extension {
+  public static final ExtensionId<TracedMailboxes> ID = new Id();
+
+  private final ConcurrentHashMap<ActorRef, MailboxStats> stats = new ConcurrentHashMap<>();
+
+  private TracedMailboxes() {
+  }
+
+  public static TracedMailboxes get(ActorSystem system) {
+    return ID.get(system);
+  }
+
+  /**
+   * Returns the stats of {@code actorRef}'s mailbox, or null if it does not run with a traced
+   * mailbox of this system.
+   */
+  public MailboxStats stats(ActorRef actorRef) {
+    return stats.get(actorRef);
+  }
+
+  /**
+   * Live view of the stats of all traced mailboxes, by owner.
+   */
+  public Map<ActorRef, MailboxStats> all() {
+    return Collections.unmodifiableMap(stats);
+  }
+
+  void register(ActorRef owner, MailboxStats mailboxStats) {
+    stats.put(owner, mailboxStats);
+  }
+
+  void unregister(ActorRef owner, MailboxStats mailboxStats) {
+    stats.remove(owner, mailboxStats);
+  }
+
+  /**
+   * Stats of the mailbox of {@code self}, without creating the extension if no traced mailbox
+   * was ever created in {@code system}.
+   */
+  static MailboxStats lookup(ActorSystem system, ActorRef self) {
+    return system.hasExtension(ID) ? get(system).stats(self) : null;
+  }
+
+  private static final class Id extends AbstractExtensionId<TracedMailboxes> implements
+      ExtensionIdProvider {
+
+    @Override
+    public TracedMailboxes createExtension(ExtendedActorSystem system) {
+      return new TracedMailboxes();
+    }
+
+    @Override
+    public ExtensionId<? extends Extension> lookup() {
+      return ID;
+    }
+  }
+}
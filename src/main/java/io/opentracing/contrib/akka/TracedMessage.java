@@ -20,10 +20,13 @@ public final class TracedMessage<T> {
 
   private T message;
   private Span activeSpan;
+  // System.nanoTime() when wrapped by wrapTimed, 0 otherwise.
+  private long enqueuedNanos;
 
-  private TracedMessage(T message, Span activeSpan) {
+  private TracedMessage(T message, Span activeSpan, long enqueuedNanos) {
     this.message = message;
     this.activeSpan = activeSpan;
+    this.enqueuedNanos = enqueuedNanos;
   }
 
   public static Object wrap(Object message) {
@@ -31,15 +34,32 @@ public final class TracedMessage<T> {
   }
 
   public static <T> Object wrap(Span activeSpan, T message) {
+    return wrap(activeSpan, message, false);
+  }
+
+  /**
+   * Same as {@link #wrap(Object)}, also recording when the message was wrapped so the receiving
+   * {@link TracedActor} can report how long it waited in the mailbox (see
+   * {@link QueueTimeRecorder}).
+   */
+  public static Object wrapTimed(Object message) {
+    return wrap(GlobalTracer.get().activeSpan(), message, true);
+  }
+
+  public static <T> Object wrapTimed(Span activeSpan, T message) {
+    return wrap(activeSpan, message, true);
+  }
+
+  private static <T> Object wrap(Span activeSpan, T message, boolean timed) {
     if (message == null) {
       throw new IllegalArgumentException("message cannot be null");
     }
 
-    if (activeSpan == null) {
+    if (activeSpan == null || !MessageFilter.global().isTraced(message.getClass())) {
       return message;
     }
 
-    return new TracedMessage<>(message, activeSpan);
+    return new TracedMessage<>(message, activeSpan, QueueTime.now(timed));
   }
 
   public Span activeSpan() {
@@ -50,6 +70,14 @@ public final class TracedMessage<T> {
     return message;
   }
 
+  /**
+   * Time elapsed since the message was wrapped, or -1 if it was not wrapped with
+   * {@code wrapTimed}.
+   */
+  long queueTimeNanos() {
+    return QueueTime.since(enqueuedNanos);
+  }
+
   @Override
   public String toString() {
     return "TracedMessage{" +
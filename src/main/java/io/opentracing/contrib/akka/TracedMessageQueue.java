@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.DeadLetter;
+import akka.dispatch.BoundedQueueBasedMessageQueue;
+import akka.dispatch.Envelope;
+import akka.dispatch.MessageQueue;
+import scala.concurrent.duration.Duration;
+
+/**
+ * {@link MessageQueue} decorator feeding {@link MailboxStats}. When dwell time is measured, each
+ * message is held in the wrapped queue together with its enqueue time and handed back unchanged
+ * on dequeue, so actors and dead letters never see the holder. Bounded queues are offered to
+ * directly, so that messages rejected when full are not counted and go to dead letters as they
+ * were sent.
+ */
+class TracedMessageQueue implements MessageQueue {
+  final MessageQueue delegate;
+  final MailboxStats stats;
+  private final ActorSystem system;
+  private final boolean dwellTime;
+
+  TracedMessageQueue(MessageQueue delegate, MailboxStats stats, ActorSystem system,
+      boolean dwellTime) {
+    this.delegate = delegate;
+    this.stats = stats;
+    this.system = system;
+    // Stamping needs the actor system to rebuild envelopes.
+    this.dwellTime = dwellTime && system != null;
+  }
+
+  @Override
+  public void enqueue(ActorRef receiver, Envelope handle) {
+    // Dead letters are reached through the actor system, which Akka always passes for actors.
+    if (system != null && delegate instanceof BoundedQueueBasedMessageQueue) {
+      enqueueBounded(receiver, handle, (BoundedQueueBasedMessageQueue) delegate);
+      return;
+    }
+    stats.onEnqueue();
+    delegate.enqueue(receiver, stamp(handle));
+  }
+
+  /**
+   * Same as {@link BoundedQueueBasedMessageQueue#enqueue}, except that a message rejected after
+   * the push timeout is neither counted nor sent to dead letters inside its holder.
+   */
+  private void enqueueBounded(ActorRef receiver, Envelope handle,
+      BoundedQueueBasedMessageQueue bounded) {
+    final Envelope stamped = stamp(handle);
+    final Duration pushTimeOut = bounded.pushTimeOut();
+    stats.onEnqueue();
+    boolean accepted;
+    try {
+      if (pushTimeOut.length() >= 0) {
+        accepted = bounded.queue().offer(stamped, pushTimeOut.length(), pushTimeOut.unit());
+      } else {
+        bounded.queue().put(stamped);
+        accepted = true;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      accepted = false;
+    }
+    if (!accepted) {
+      stats.onRejected();
+      system.deadLetters().tell(new DeadLetter(handle.message(), handle.sender(), receiver),
+          handle.sender());
+    }
+  }
+
+  @Override
+  public Envelope dequeue() {
+    final Envelope envelope = delegate.dequeue();
+    if (envelope == null) {
+      return null;
+    }
+    stats.onDequeue();
+    if (envelope.message() instanceof Stamped) {
+      final Stamped stamped = (Stamped) envelope.message();
+      stats.dwellTime().recordNanos(System.nanoTime() - stamped.enqueuedNanos);
+      return Envelope.apply(stamped.message, envelope.sender(), system);
+    }
+    return envelope;
+  }
+
+  @Override
+  public int numberOfMessages() {
+    return delegate.numberOfMessages();
+  }
+
+  @Override
+  public boolean hasMessages() {
+    return delegate.hasMessages();
+  }
+
+  @Override
+  public void cleanUp(ActorRef owner, MessageQueue deadLetters) {
+    Envelope envelope;
+    while ((envelope = dequeue()) != null) {
+      deadLetters.enqueue(owner, envelope);
+    }
+    if (system != null) {
+      TracedMailboxes.get(system).unregister(owner, stats);
+    }
+  }
+
+  Envelope stamp(Envelope handle) {
+    if (!dwellTime) {
+      return handle;
+    }
+    return Envelope.apply(new Stamped(handle.message(), System.nanoTime()), handle.sender(),
+        system);
+  }
+
+  private static final class Stamped {
+    private final Object message;
+    private final long enqueuedNanos;
+
+    private Stamped(Object message, long enqueuedNanos) {
+      this.message = message;
+      this.enqueuedNanos = enqueuedNanos;
+    }
+  }
+}
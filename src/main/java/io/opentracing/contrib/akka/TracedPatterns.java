@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ActorRef;
+import akka.pattern.AskTimeoutException;
+import akka.pattern.Patterns;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.log.Fields;
+import io.opentracing.tag.Tags;
+import io.opentracing.util.GlobalTracer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Traced variant of {@link Patterns#ask(ActorRef, Object, Duration)}. Each ask gets a client
+ * span, a child of the active span, which is carried to the target and finished when the reply
+ * arrives or the ask fails:
+ * <pre>
+ * CompletionStage&lt;Object&gt; reply = TracedPatterns.ask(actorRef, message, timeout);
+ * </pre>
+ * The span is carried in a {@link DistributedTracedMessage} by default, for targets extending the
+ * {@code DistributedTraced*} base classes; pass {@link Carrier#TRACED_MESSAGE} for targets
+ * extending the {@code Traced*} ones.
+ *
+ * <p>No timer is created here: the timeout is the one Akka schedules for every ask on the actor
+ * system's scheduler, and the span is finished with {@code error=true} when it expires. Messages
+ * rejected by {@link MessageFilter#global()} are asked without a span.
+ */
+public final class TracedPatterns {
+  static final String OPERATION_NAME = "ask";
+  static final String TIMEOUT_TAG = "akka.ask.timeout";
+
+  private TracedPatterns() {
+  }
+
+  /**
+   * Message wrapper carrying the ask span to the target.
+   */
+  public enum Carrier {
+    /**
+     * {@link TracedMessage}, unwrapped by {@link TracedActor}; same JVM only.
+     */
+    TRACED_MESSAGE,
+
+    /**
+     * {@link DistributedTracedMessage}, unwrapped by {@link DistributedTracedActor}.
+     */
+    DISTRIBUTED_TRACED_MESSAGE
+  }
+
+  public static CompletionStage<Object> ask(ActorRef actor, Object message, Duration timeout) {
+    return ask(GlobalTracer.get(), actor, message, timeout);
+  }
+
+  public static CompletionStage<Object> ask(Tracer tracer, ActorRef actor, Object message,
+      Duration timeout) {
+    return ask(tracer, actor, message, timeout, Carrier.DISTRIBUTED_TRACED_MESSAGE);
+  }
+
+  public static CompletionStage<Object> ask(Tracer tracer, ActorRef actor, Object message,
+      Duration timeout, Carrier carrier) {
+    if (carrier == null) {
+      throw new IllegalArgumentException("carrier cannot be null");
+    }
+    if (actor == null) {
+      throw new IllegalArgumentException("actor cannot be null");
+    }
+    if (message == null) {
+      throw new IllegalArgumentException("message cannot be null");
+    }
+    if (!MessageFilter.global().isTraced(message.getClass())) {
+      return Patterns.ask(actor, message, timeout);
+    }
+
+    final Span span = tracer.buildSpan(OPERATION_NAME)
+        .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT)
+        .withTag(Tags.COMPONENT, "java-akka")
+        .withTag(ActorTags.ACTOR_PATH, actor.path().toString())
+        .start();
+    final Object wrapped = carrier == Carrier.TRACED_MESSAGE
+        ? TracedMessage.wrap(span, message)
+        : DistributedTracedMessage.wrap(tracer, span, message, actor);
+    final CompletionStage<Object> reply;
+    try {
+      reply = Patterns.ask(actor, wrapped, timeout);
+    } catch (RuntimeException e) {
+      finish(span, e);
+      throw e;
+    }
+    reply.whenComplete((result, error) -> finish(span, error));
+    return reply;
+  }
+
+  private static void finish(Span span, Throwable error) {
+    if (error instanceof CompletionException && error.getCause() != null) {
+      error = error.getCause();
+    }
+    if (error != null) {
+      Tags.ERROR.set(span, true);
+      if (error instanceof AskTimeoutException) {
+        span.setTag(TIMEOUT_TAG, true);
+      }
+      final Map<String, Object> fields = new HashMap<>(4);
+      fields.put(Fields.EVENT, "error");
+      fields.put(Fields.ERROR_OBJECT, error);
+      span.log(fields);
+    }
+    span.finish();
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ActorRef;
+import akka.routing.NoRoutee;
+import akka.routing.Routee;
+import akka.routing.RoutingLogic;
+import io.opentracing.References;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.tag.Tags;
+import io.opentracing.util.GlobalTracer;
+import scala.collection.immutable.IndexedSeq;
+
+/**
+ * {@link RoutingLogic} decorator for routers receiving {@link DistributedTracedMessage}s, e.g.
+ * with broadcast or scatter-gather logic. The context is extracted once per routed message
+ * instead of once per routee, and handed to the selected routees already extracted. Optionally,
+ * a "route" span following from it records the routing decision, and becomes the parent context
+ * of the routees' "receive" spans:
+ * <pre>
+ * RoutingLogic logic = new TracedRoutingLogic(new BroadcastRoutingLogic()).withRouteSpan(true);
+ * </pre>
+ * {@link TracedGroup} builds router groups around it. Other messages are routed unchanged.
+ */
+public final class TracedRoutingLogic implements RoutingLogic {
+  static final String ROUTE_OPERATION_NAME = "route";
+  static final String ROUTER_LOGIC = "akka.router.logic";
+  static final String ROUTER_ROUTEES = "akka.router.routees";
+
+  private final Tracer tracer;
+  private final RoutingLogic delegate;
+  private final boolean routeSpan;
+
+  public TracedRoutingLogic(RoutingLogic delegate) {
+    this(GlobalTracer.get(), delegate);
+  }
+
+  public TracedRoutingLogic(Tracer tracer, RoutingLogic delegate) {
+    this(tracer, delegate, false);
+  }
+
+  private TracedRoutingLogic(Tracer tracer, RoutingLogic delegate, boolean routeSpan) {
+    if (tracer == null) {
+      throw new IllegalArgumentException("tracer cannot be null");
+    }
+    if (delegate == null) {
+      throw new IllegalArgumentException("delegate cannot be null");
+    }
+    this.tracer = tracer;
+    this.delegate = delegate;
+    this.routeSpan = routeSpan;
+  }
+
+  /**
+   * Whether to record a "route" span per routed message, timing {@link #select}.
+   */
+  public TracedRoutingLogic withRouteSpan(boolean routeSpan) {
+    return new TracedRoutingLogic(tracer, delegate, routeSpan);
+  }
+
+  public RoutingLogic delegate() {
+    return delegate;
+  }
+
+  @Override
+  public Routee select(Object message, IndexedSeq<Routee> routees) {
+    if (!(message instanceof DistributedTracedMessage)) {
+      return delegate.select(message, routees);
+    }
+
+    // Routing decisions, e.g. consistent hashing, are made on the wrapped message.
+    final DistributedTracedMessage<?> tracedMessage = (DistributedTracedMessage<?>) message;
+    final SpanContext spanContext = tracedMessage.spanContext(tracer);
+    if (spanContext == null || !routeSpan || tracedMessage.unsampled()) {
+      // The router sends the wrapper itself, which now caches the context for every routee.
+      return delegate.select(tracedMessage.message(), routees);
+    }
+
+    final long startMicros = System.currentTimeMillis() * 1000;
+    final long startNanos = System.nanoTime();
+    final Routee selected = delegate.select(tracedMessage.message(), routees);
+    final long durationMicros = (System.nanoTime() - startNanos) / 1000;
+    if (selected == NoRoutee.getInstance()) {
+      return selected;
+    }
+
+    final Span span = tracer.buildSpan(ROUTE_OPERATION_NAME)
+        .ignoreActiveSpan()
+        .addReference(References.FOLLOWS_FROM, spanContext)
+        .withTag(Tags.COMPONENT, "java-akka")
+        .withTag(ROUTER_LOGIC, delegate.getClass().getSimpleName())
+        .withTag(ROUTER_ROUTEES, routees.size())
+        .withStartTimestamp(startMicros)
+        .start();
+    span.finish(startMicros + durationMicros);
+
+    final Propagation propagation = tracedMessage.carrier() instanceof BinaryCarrier
+        ? Propagation.BINARY : Propagation.TEXT_MAP;
+    return new TracedRoutee(selected,
+        tracedMessage.withCarrier(new LocalSpanCarrier(tracer, span, propagation)));
+  }
+
+  /**
+   * Selected routee(s) of one message, sending them its re-carried wrapper.
+   */
+  private static final class TracedRoutee implements Routee {
+    private final Routee delegate;
+    private final Object message;
+
+    TracedRoutee(Routee delegate, Object message) {
+      this.delegate = delegate;
+      this.message = message;
+    }
+
+    @Override
+    public void send(Object ignored, ActorRef sender) {
+      delegate.send(message, sender);
+    }
+  }
+}
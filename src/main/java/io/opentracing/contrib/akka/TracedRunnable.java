@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import scala.concurrent.OnCompleteRunnable;
+
+/**
+ * Task submitted while {@link #span} was active, running with it activated again. The span is
+ * neither started nor finished here.
+ *
+ * <p>Future callbacks are marked as batchable ({@link OnCompleteRunnable} or Akka's
+ * {@link akka.dispatch.Batchable}), letting Akka's dispatchers run them on the submitting thread
+ * instead of going through the pool again. Wrappers of such tasks keep the marker.
+ */
+class TracedRunnable implements Runnable {
+  private final Tracer tracer;
+  private final Span span;
+  private final Runnable task;
+
+  private TracedRunnable(Tracer tracer, Span span, Runnable task) {
+    this.tracer = tracer;
+    this.span = span;
+    this.task = task;
+  }
+
+  /**
+   * Returns {@code task} itself if no span is active, so untraced submissions allocate nothing.
+   */
+  static Runnable capture(Tracer tracer, Runnable task) {
+    final Span span = tracer.activeSpan();
+    if (span == null) {
+      return task;
+    }
+    if (task instanceof akka.dispatch.Batchable || task instanceof OnCompleteRunnable) {
+      return new BatchableTracedRunnable(tracer, span, task);
+    }
+    return new TracedRunnable(tracer, span, task);
+  }
+
+  Runnable task() {
+    return task;
+  }
+
+  @Override
+  public void run() {
+    try (Scope ignored = ActorScopeManager.activateOnce(tracer.scopeManager(), span)) {
+      task.run();
+    }
+  }
+
+  private static final class BatchableTracedRunnable extends TracedRunnable
+      implements akka.dispatch.Batchable, OnCompleteRunnable {
+
+    private BatchableTracedRunnable(Tracer tracer, Span span, Runnable task) {
+      super(tracer, span, task);
+    }
+
+    @Override
+    public boolean isBatchable() {
+      final Runnable task = task();
+      return !(task instanceof akka.dispatch.Batchable)
+          || ((akka.dispatch.Batchable) task).isBatchable();
+    }
+  }
+}
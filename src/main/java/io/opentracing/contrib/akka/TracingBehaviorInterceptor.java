@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.typed.Behavior;
+import akka.actor.typed.BehaviorInterceptor;
+import akka.actor.typed.TypedActorContext;
+import akka.actor.typed.javadsl.ActorContext;
+import akka.actor.typed.javadsl.Adapter;
+import io.opentracing.Tracer;
+import java.util.function.BiConsumer;
+import scala.PartialFunction;
+import scala.runtime.BoxedUnit;
+
+/**
+ * Typed counterpart of the traced base classes: unwraps {@link TracedMessage}s and
+ * {@link DistributedTracedMessage}s, activates their span (or starts, activates and finishes a
+ * "receive" span) and hands the original message to the intercepted behavior. Created per
+ * spawned actor by {@link TracedBehaviors}; the delivery state of the current message is kept in
+ * fields so that no lambda is allocated per message.
+ */
+final class TracingBehaviorInterceptor<T> extends BehaviorInterceptor<Object, T> {
+  private Tracer tracer;
+  private ReceiveSettings receiveSettings;
+  private ActorTags actorTags = ActorTags.EMPTY;
+
+  private final BiConsumer<PartialFunction<Object, BoxedUnit>, Object> deliver = this::deliver;
+  private TypedActorContext<Object> context;
+  private ReceiveTarget<T> target;
+  private Behavior<T> next;
+
+  /**
+   * A null {@code tracer} or {@code receiveSettings} is taken from {@link AkkaTracing} on start.
+   */
+  TracingBehaviorInterceptor(Tracer tracer, ReceiveSettings receiveSettings) {
+    super(Object.class);
+    this.tracer = tracer;
+    this.receiveSettings = receiveSettings;
+  }
+
+  @Override
+  public Behavior<T> aroundStart(TypedActorContext<Object> ctx, PreStartTarget<T> target) {
+    final ActorContext<Object> context = ctx.asJava();
+    final akka.actor.ActorSystem system = Adapter.toClassic(context.getSystem());
+    final AkkaTracing tracing = AkkaTracing.get(system);
+    if (tracer == null) {
+      tracer = tracing.tracer();
+    }
+    if (receiveSettings == null) {
+      receiveSettings = tracing.receiveSettings();
+    }
+    actorTags = ActorTags.of(Adapter.toClassic(context.getSelf()), system,
+        context.getExecutionContext());
+    return target.start(ctx);
+  }
+
+  @Override
+  public Behavior<T> aroundReceive(TypedActorContext<Object> ctx, Object msg,
+      ReceiveTarget<T> target) {
+    this.context = ctx;
+    this.target = target;
+    try {
+      if (msg instanceof TracedMessage) {
+        TracedActor.Utils.aroundReceive(deliver, tracer, receiveSettings.queueTimeRecorder(),
+            null, msg);
+      } else {
+        DistributedTracedActor.Utils.aroundReceive(deliver, tracer, receiveSettings, actorTags,
+            null, msg);
+      }
+      return next;
+    } finally {
+      this.context = null;
+      this.target = null;
+      this.next = null;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void deliver(PartialFunction<Object, BoxedUnit> receive, Object message) {
+    next = target.apply(context, (T) message);
+  }
+}
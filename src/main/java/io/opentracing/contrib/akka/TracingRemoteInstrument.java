@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.ActorRef;
+import akka.actor.ExtendedActorSystem;
+import akka.remote.artery.RemoteInstrument;
+import io.opentracing.Span;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.BinaryExtract;
+import io.opentracing.propagation.BinaryInject;
+import io.opentracing.propagation.Format;
+import io.opentracing.util.GlobalTracer;
+import java.nio.ByteBuffer;
+
+/**
+ * Artery {@link RemoteInstrument} carrying the span context in the envelope metadata instead of
+ * the message payload. Enable it with:
+ * <pre>
+ * akka.remote.artery.advanced.instruments += "io.opentracing.contrib.akka.TracingRemoteInstrument"
+ * </pre>
+ * on both the sending and the receiving nodes.
+ *
+ * <p>Artery encodes messages on its own stream threads, where the sender's active span is no
+ * longer visible, so messages must be sent through {@link #tell(ActorRef, Object, ActorRef)}.
+ * It wraps them in a {@link DistributedTracedMessage} holding the current context as is; the
+ * serializer writes no headers for it, the context is injected into the metadata of that
+ * message's envelope and restored into the wrapper deserialized from it. Receivers extending
+ * the {@code DistributedTraced*} base classes get a "receive" span exactly as for any
+ * {@link DistributedTracedMessage}; local recipients are handled as well, without any
+ * propagation.
+ *
+ * <p>This does not make propagation wrapper-free. Artery hands the instrument nothing but the
+ * message, and nothing else identifies a send: looking the context up by message identity mixes
+ * up contexts as soon as the same instance is sent twice. So one wrapper is allocated per send,
+ * recipients must still unwrap it, and the serializer frames the payload with a carrier kind,
+ * the payload serializer id and its manifest (7 bytes plus the manifest). What the instrument
+ * saves is the injected headers in the payload.
+ *
+ * <p>The context is written with {@link Format.Builtin#BINARY_INJECT} straight into the
+ * metadata buffer, and read back with {@link Format.Builtin#BINARY_EXTRACT} from a view of it, so
+ * the tracer needs to support the binary format.
+ */
+public class TracingRemoteInstrument extends RemoteInstrument {
+  static final byte IDENTIFIER = 17;
+
+  private final Tracer tracer;
+
+  public TracingRemoteInstrument(ExtendedActorSystem system) {
+    this(AkkaTracing.get(system).tracer());
+  }
+
+  TracingRemoteInstrument(Tracer tracer) {
+    this.tracer = tracer;
+  }
+
+  public static void tell(ActorRef recipient, Object message, ActorRef sender) {
+    tell(GlobalTracer.get(), recipient, message, sender);
+  }
+
+  public static void tell(Tracer tracer, ActorRef recipient, Object message, ActorRef sender) {
+    if (message == null) {
+      throw new IllegalArgumentException("message cannot be null");
+    }
+
+    final Span activeSpan = tracer.activeSpan();
+    if (activeSpan == null || !MessageFilter.global().isTraced(message.getClass())) {
+      recipient.tell(message, sender);
+      return;
+    }
+    recipient.tell(new DistributedTracedMessage<>(message,
+        new MetadataCarrier(activeSpan.context())), sender);
+  }
+
+  @Override
+  public byte identifier() {
+    return IDENTIFIER;
+  }
+
+  @Override
+  public void remoteWriteMetadata(ActorRef recipient, Object message, ActorRef sender,
+      ByteBuffer buffer) {
+    final MetadataCarrier carrier = metadataCarrier(message);
+    if (carrier != null && carrier.spanContext() != null) {
+      tracer.inject(carrier.spanContext(), Format.Builtin.BINARY_INJECT,
+          new MetadataInject(buffer));
+    }
+  }
+
+  @Override
+  public void remoteMessageSent(ActorRef recipient, Object message, ActorRef sender, int size,
+      long time) {
+  }
+
+  @Override
+  public void remoteReadMetadata(ActorRef recipient, Object message, ActorRef sender,
+      ByteBuffer buffer) {
+    final int length = buffer.getShort() & 0xFFFF;
+    final ByteBuffer view = buffer.slice();
+    view.limit(length);
+    buffer.position(buffer.position() + length);
+
+    final MetadataCarrier carrier = metadataCarrier(message);
+    if (carrier != null) {
+      carrier.spanContext(
+          tracer.extract(Format.Builtin.BINARY_EXTRACT, (BinaryExtract) () -> view));
+    }
+  }
+
+  @Override
+  public void remoteMessageReceived(ActorRef recipient, Object message, ActorRef sender, int size,
+      long time) {
+  }
+
+  private static MetadataCarrier metadataCarrier(Object message) {
+    if (message instanceof DistributedTracedMessage) {
+      final SpanContextCarrier carrier = ((DistributedTracedMessage<?>) message).carrier();
+      if (carrier instanceof MetadataCarrier) {
+        return (MetadataCarrier) carrier;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Hands the tracer a length-prefixed view of the metadata buffer, so the context is written
+   * in place.
+   */
+  private static final class MetadataInject implements BinaryInject {
+    private final ByteBuffer buffer;
+
+    MetadataInject(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public ByteBuffer injectionBuffer(int length) {
+      if (length < 1 || length > 0xFFFF) {
+        throw new IllegalArgumentException("length needs to be between 1 and 65535");
+      }
+      buffer.putShort((short) length);
+      final ByteBuffer view = buffer.slice();
+      view.limit(length);
+      buffer.position(buffer.position() + length);
+      return view;
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import akka.actor.AbstractExtensionId;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Extension;
+import akka.actor.ExtensionId;
+import akka.actor.ExtensionIdProvider;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Actor system extension turning tracing off and on at runtime, by actor class name or actor path
+ * prefix, without restarting anything. Disabled actors deliver traced messages unwrapped, without
+ * activating or starting any span. Also exposed over JMX (see {@link TracingSwitchMBean}):
+ * <pre>
+ * TracingSwitch.get(system).disableActorClass(HotActor.class.getName());
+ * TracingSwitch.get(system).disablePathPrefix("akka://system/user/orders");
+ * </pre>
+ *
+ * <p>Rules are kept in an immutable snapshot replaced on every change; each traced actor caches
+ * its decision for the snapshot it last saw (see {@link TracingToggle}), so checking the switch
+ * costs a volatile read per message.
+ */
+public final class TracingSwitch implements Extension, TracingSwitchMBean {
+  public static final ExtensionId<TracingSwitch> ID = new Id();
+
+  private volatile Rules rules = new Rules(new String[0], new String[0]);
+
+  private TracingSwitch() {
+  }
+
+  public static TracingSwitch get(ActorSystem system) {
+    return ID.get(system);
+  }
+
+  @Override
+  public synchronized void disableActorClass(String className) {
+    rules = new Rules(add(rules.classNames, className), rules.pathPrefixes);
+  }
+
+  @Override
+  public synchronized void enableActorClass(String className) {
+    rules = new Rules(remove(rules.classNames, className), rules.pathPrefixes);
+  }
+
+  @Override
+  public synchronized void disablePathPrefix(String pathPrefix) {
+    rules = new Rules(rules.classNames, add(rules.pathPrefixes, pathPrefix));
+  }
+
+  @Override
+  public synchronized void enablePathPrefix(String pathPrefix) {
+    rules = new Rules(rules.classNames, remove(rules.pathPrefixes, pathPrefix));
+  }
+
+  @Override
+  public String[] getDisabledActorClasses() {
+    return rules.classNames.clone();
+  }
+
+  @Override
+  public String[] getDisabledPathPrefixes() {
+    return rules.pathPrefixes.clone();
+  }
+
+  public boolean isEnabled(Class<?> actorClass, String actorPath) {
+    return rules.isEnabled(actorClass.getName(), actorPath);
+  }
+
+  Rules rules() {
+    return rules;
+  }
+
+  private static String[] add(String[] values, String value) {
+    if (value == null) {
+      throw new IllegalArgumentException("value cannot be null");
+    }
+    final Set<String> set = new HashSet<>(Arrays.asList(values));
+    set.add(value);
+    return set.toArray(new String[0]);
+  }
+
+  private static String[] remove(String[] values, String value) {
+    final Set<String> set = new HashSet<>(Arrays.asList(values));
+    set.remove(value);
+    return set.toArray(new String[0]);
+  }
+
+  private void registerMBean(ActorSystem system) {
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    final ObjectName name;
+    try {
+      name = new ObjectName("io.opentracing.contrib.akka:type=TracingSwitch,system="
+          + ObjectName.quote(system.name()));
+      server.registerMBean(this, name);
+    } catch (JMException e) {
+      system.log().warning("Could not register the TracingSwitch MBean: {}", e.getMessage());
+      return;
+    }
+    system.registerOnTermination(() -> {
+      try {
+        server.unregisterMBean(name);
+      } catch (JMException ignored) {
+        // Already gone.
+      }
+    });
+  }
+
+  static final class Rules {
+    private final String[] classNames;
+    private final String[] pathPrefixes;
+
+    private Rules(String[] classNames, String[] pathPrefixes) {
+      this.classNames = classNames;
+      this.pathPrefixes = pathPrefixes;
+    }
+
+    boolean isEnabled(String className, String actorPath) {
+      for (String disabled : classNames) {
+        if (disabled.equals(className)) {
+          return false;
+        }
+      }
+      if (actorPath != null) {
+        for (String prefix : pathPrefixes) {
+          if (actorPath.startsWith(prefix)) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class Id extends AbstractExtensionId<TracingSwitch> implements
+      ExtensionIdProvider {
+
+    @Override
+    public TracingSwitch createExtension(ExtendedActorSystem system) {
+      final TracingSwitch tracingSwitch = new TracingSwitch();
+      tracingSwitch.registerMBean(system);
+      return tracingSwitch;
+    }
+
+    @Override
+    public ExtensionId<? extends Extension> lookup() {
+      return ID;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+/**
+ * JMX view of {@link TracingSwitch}, registered as
+ * {@code io.opentracing.contrib.akka:type=TracingSwitch,system=<actor system name>}.
+ */
+public interface TracingSwitchMBean {
+  void disableActorClass(String className);
+
+  void enableActorClass(String className);
+
+  void disablePathPrefix(String pathPrefix);
+
+  void enablePathPrefix(String pathPrefix);
+
+  String[] getDisabledActorClasses();
+
+  String[] getDisabledPathPrefixes();
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+/**
+ * Decision of a {@link TracingSwitch} for one actor instance, recomputed only when the rules
+ * change. Only read from the actor's own message processing, so the cached fields need no
+ * synchronization.
+ */
+final class TracingToggle {
+  static final TracingToggle ALWAYS = new TracingToggle(null, null, null);
+
+  private final TracingSwitch tracingSwitch;
+  private final String className;
+  private final String actorPath;
+  private TracingSwitch.Rules seen;
+  private boolean enabled = true;
+
+  private TracingToggle(TracingSwitch tracingSwitch, String className, String actorPath) {
+    this.tracingSwitch = tracingSwitch;
+    this.className = className;
+    this.actorPath = actorPath;
+  }
+
+  static TracingToggle of(TracingSwitch tracingSwitch, Class<?> actorClass, ActorTags actorTags) {
+    return new TracingToggle(tracingSwitch, actorClass.getName(), actorTags.actorPath());
+  }
+
+  boolean enabled() {
+    if (tracingSwitch == null) {
+      return true;
+    }
+    final TracingSwitch.Rules rules = tracingSwitch.rules();
+    if (rules != seen) {
+      enabled = rules.isEnabled(className, actorPath);
+      seen = rules;
+    }
+    return enabled;
+  }
+}
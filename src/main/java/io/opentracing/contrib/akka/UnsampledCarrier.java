@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+
+/**
+ * Sampling decision of a context reported as unsampled by the sender's {@link SamplingPolicy},
+ * carried instead of injected headers. Within this JVM it also holds the live context, so the
+ * receiver can activate it and spans started while processing the message join the unsampled
+ * trace. Serialized, only the decision is kept: the receiver skips its "receive" span but has no
+ * context to activate.
+ */
+final class UnsampledCarrier implements SpanContextCarrier {
+  /**
+   * Deserialized decision, without a context.
+   */
+  static final UnsampledCarrier DETACHED = new UnsampledCarrier(null);
+
+  private final SpanContext spanContext;
+
+  UnsampledCarrier(SpanContext spanContext) {
+    this.spanContext = spanContext;
+  }
+
+  @Override
+  public SpanContext extract(Tracer tracer) {
+    return spanContext;
+  }
+}
@@ -14,6 +14,8 @@
 package io.opentracing.contrib.akka;
 
 import static akka.pattern.Patterns.ask;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -28,6 +30,7 @@ import io.opentracing.mock.MockTracer;
 import io.opentracing.util.GlobalTracer;
 import io.opentracing.util.GlobalTracerTestUtil;
 import io.opentracing.util.ThreadLocalScopeManager;
+import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -94,6 +97,31 @@ public abstract class AbstractDistributedTracedActorTest {
     assertTrue(isSpanSame);
   }
 
+  @Test
+  public void testActorTags() throws Exception {
+    ActorRef actorRef = system.actorOf(traceIdCheckTracedActorProps(), "actorOne");
+    Timeout timeout = new Timeout(getDefaultDuration());
+
+    Future<Object> future;
+    final MockSpan parent = mockTracer.buildSpan("one").start();
+    try (Scope ignored = mockTracer.activateSpan(parent)) {
+      Object message = DistributedTracedMessage
+          .wrap(mockTracer.activeSpan().context().toTraceId() /* message */);
+      future = ask(actorRef, message, timeout);
+    }
+    parent.finish();
+    Await.result(future, getDefaultDuration());
+
+    await().atMost(3, TimeUnit.SECONDS).until(() -> mockTracer.finishedSpans().size() == 2);
+    MockSpan receiveSpan = mockTracer.finishedSpans().stream()
+        .filter(span -> span.operationName().equals("receive"))
+        .findFirst()
+        .get();
+    assertEquals(actorRef.path().toString(), receiveSpan.tags().get(ActorTags.ACTOR_PATH));
+    assertEquals("testSystem", receiveSpan.tags().get(ActorTags.ACTOR_SYSTEM));
+    assertEquals("akka.actor.default-dispatcher", receiveSpan.tags().get(ActorTags.DISPATCHER));
+  }
+
   @Test
   public void testNoWrapMessage() throws Exception {
     ActorRef actorRef = system.actorOf(traceIdCheckTracedActorProps(), "actorOne");
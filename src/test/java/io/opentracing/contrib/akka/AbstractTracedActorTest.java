@@ -15,6 +15,7 @@ package io.opentracing.contrib.akka;
 
 import static akka.pattern.Patterns.ask;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import akka.actor.ActorRef;
@@ -93,6 +94,21 @@ public abstract class AbstractTracedActorTest {
     assertTrue(isSpanSame);
   }
 
+  @Test
+  public void testPropagatedSpanNotTagged() throws Exception {
+    ActorRef actorRef = system.actorOf(spanCheckTracedActorProps(), "actorOne");
+    Timeout timeout = new Timeout(getDefaultDuration());
+
+    final MockSpan parent = mockTracer.buildSpan("one").start();
+    Future<Object> future = ask(actorRef, TracedMessage.wrapTimed(parent, parent), timeout);
+    assertTrue((Boolean) Await.result(future, getDefaultDuration()));
+    parent.finish();
+
+    assertNull(parent.tags().get(ActorTags.ACTOR_PATH));
+    assertNull(parent.tags().get(ActorTags.DISPATCHER));
+    assertNull(parent.tags().get(QueueTimeRecorder.QUEUE_TIME_TAG));
+  }
+
   @Test
   public void testNoWrapMessage() throws Exception {
     ActorRef actorRef = system.actorOf(spanCheckTracedActorProps(), "actorOne");
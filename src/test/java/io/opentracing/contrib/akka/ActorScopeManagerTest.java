@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class ActorScopeManagerTest {
+
+  private final ActorScopeManager scopeManager = new ActorScopeManager();
+  private final MockTracer mockTracer = new MockTracer(scopeManager);
+
+  @Test
+  public void testNesting() {
+    Span one = mockTracer.buildSpan("one").start();
+    Span two = mockTracer.buildSpan("two").start();
+
+    assertNull(scopeManager.activeSpan());
+    try (Scope ignored = scopeManager.activate(one)) {
+      assertSame(one, scopeManager.activeSpan());
+      try (Scope ignored2 = scopeManager.activate(two)) {
+        assertSame(two, scopeManager.activeSpan());
+        MockSpan child = mockTracer.buildSpan("child").start();
+        assertEquals(((MockSpan) two).context().spanId(), child.parentId());
+      }
+      assertSame(one, scopeManager.activeSpan());
+    }
+    assertNull(scopeManager.activeSpan());
+  }
+
+  @Test
+  public void testDoubleCloseAfterReactivation() {
+    Span one = mockTracer.buildSpan("one").start();
+    Span two = mockTracer.buildSpan("two").start();
+
+    Scope first = scopeManager.activate(one);
+    first.close();
+    Scope second = scopeManager.activate(two);
+    first.close();
+    assertSame(two, scopeManager.activeSpan());
+    second.close();
+    assertNull(scopeManager.activeSpan());
+  }
+
+  @Test
+  public void testActivateOnceReusesScope() {
+    Span one = mockTracer.buildSpan("one").start();
+    Span two = mockTracer.buildSpan("two").start();
+
+    Scope first = ActorScopeManager.activateOnce(scopeManager, one);
+    first.close();
+    Scope second = ActorScopeManager.activateOnce(scopeManager, two);
+    assertSame(first, second);
+    assertSame(two, scopeManager.activeSpan());
+    second.close();
+    assertNull(scopeManager.activeSpan());
+  }
+
+  @Test
+  public void testStaleCloseIgnoredByReusedScope() {
+    Span one = mockTracer.buildSpan("one").start();
+    Span two = mockTracer.buildSpan("two").start();
+
+    Scope stale = scopeManager.activate(one);
+    stale.close();
+    Scope reused = ActorScopeManager.activateOnce(scopeManager, two);
+    stale.close();
+    assertSame(two, scopeManager.activeSpan());
+    reused.close();
+    assertNull(scopeManager.activeSpan());
+  }
+
+  @Test
+  public void testSameSpanActivation() {
+    Span one = mockTracer.buildSpan("one").start();
+
+    try (Scope outer = scopeManager.activate(one)) {
+      Scope inner = scopeManager.activate(one);
+      inner.close();
+      assertSame(one, scopeManager.activeSpan());
+    }
+    assertNull(scopeManager.activeSpan());
+  }
+
+  @Test
+  public void testDeepNesting() {
+    Span[] spans = new Span[20];
+    Scope[] scopes = new Scope[20];
+    for (int i = 0; i < spans.length; i++) {
+      spans[i] = mockTracer.buildSpan("span" + i).start();
+      scopes[i] = scopeManager.activate(spans[i]);
+    }
+    for (int i = spans.length - 1; i >= 0; i--) {
+      assertSame(spans[i], scopeManager.activeSpan());
+      scopes[i].close();
+    }
+    assertNull(scopeManager.activeSpan());
+  }
+
+  @Test
+  public void testOutOfOrderClose() {
+    Span one = mockTracer.buildSpan("one").start();
+    Span two = mockTracer.buildSpan("two").start();
+
+    Scope outer = scopeManager.activate(one);
+    Scope inner = scopeManager.activate(two);
+    outer.close();
+    assertSame(two, scopeManager.activeSpan());
+    inner.close();
+    outer.close();
+    assertNull(scopeManager.activeSpan());
+  }
+
+  @Test
+  public void testCloseOnOtherThread() throws Exception {
+    Span one = mockTracer.buildSpan("one").start();
+    AtomicReference<Span> otherActiveSpan = new AtomicReference<>(one);
+
+    Scope scope = scopeManager.activate(one);
+    Thread thread = new Thread(() -> {
+      scope.close();
+      otherActiveSpan.set(scopeManager.activeSpan());
+    });
+    thread.start();
+    thread.join();
+
+    assertNull(otherActiveSpan.get());
+    assertSame(one, scopeManager.activeSpan());
+    scope.close();
+  }
+}
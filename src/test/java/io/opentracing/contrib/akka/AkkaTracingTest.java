@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.util.GlobalTracer;
+import io.opentracing.util.GlobalTracerTestUtil;
+import io.opentracing.util.ThreadLocalScopeManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+public class AkkaTracingTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+
+  public static class NeverSampled implements SamplingPolicy {
+    @Override
+    public boolean isSampled(SpanContext spanContext) {
+      return false;
+    }
+  }
+
+  @Before
+  public void before() {
+    GlobalTracerTestUtil.resetGlobalTracer();
+    mockTracer.reset();
+    GlobalTracer.registerIfAbsent(mockTracer);
+  }
+
+  @After
+  public void after() {
+    GlobalTracerTestUtil.resetGlobalTracer();
+  }
+
+  @Test
+  public void testDefaults() throws Exception {
+    ActorSystem system = ActorSystem.create("testSystem");
+    try {
+      AkkaTracing tracing = AkkaTracing.get(system);
+
+      assertSame(GlobalTracer.get(), tracing.tracer());
+      assertEquals(Propagation.TEXT_MAP, tracing.propagation());
+      assertSame(SamplingPolicy.ALWAYS, tracing.receiveSettings().samplingPolicy());
+      assertEquals(ReceiveMode.SPAN, tracing.receiveSettings().receiveMode());
+      assertSame(SpanNaming.DEFAULT, tracing.receiveSettings().spanNaming());
+      assertSame(SpanGovernor.UNLIMITED, tracing.receiveSettings().spanGovernor());
+      assertNull(tracing.queueTimeHistogram());
+    } finally {
+      Await.result(system.terminate(), Duration.create(3, "seconds"));
+    }
+  }
+
+  @Test
+  public void testConfig() {
+    AkkaTracing tracing = fromConfig("propagation = binary\n"
+        + "receive-mode = context-only\n"
+        + "span-naming = message-class\n"
+        + "spans-per-second = 100\n"
+        + "queue-time = on");
+
+    assertEquals(Propagation.BINARY, tracing.propagation());
+    assertEquals(ReceiveMode.CONTEXT_ONLY, tracing.receiveSettings().receiveMode());
+    assertSame(SpanNaming.MESSAGE_CLASS, tracing.receiveSettings().spanNaming());
+    assertTrue(tracing.receiveSettings().spanGovernor() != SpanGovernor.UNLIMITED);
+    assertNotNull(tracing.queueTimeHistogram());
+    assertSame(tracing.queueTimeHistogram(), tracing.receiveSettings().queueTimeRecorder());
+
+    Span span = mockTracer.buildSpan("one").start();
+    try (Scope ignored = mockTracer.activateSpan(span)) {
+      DistributedTracedMessage<?> message = (DistributedTracedMessage<?>) tracing.wrap("foo");
+      assertTrue(message.carrier() instanceof BinaryCarrier);
+    }
+  }
+
+  @Test
+  public void testSamplingPolicyClass() {
+    AkkaTracing tracing = fromConfig("sampling-policy = \"" + NeverSampled.class.getName() + "\"");
+
+    assertTrue(tracing.receiveSettings().samplingPolicy() instanceof NeverSampled);
+    Span span = mockTracer.buildSpan("one").start();
+    try (Scope ignored = mockTracer.activateSpan(span)) {
+      assertEquals("foo", tracing.wrap("foo"));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownPropagation() {
+    fromConfig("propagation = morse");
+  }
+
+  private static AkkaTracing fromConfig(String config) {
+    Config reference = ConfigFactory.defaultReference().getConfig("opentracing.akka");
+    return AkkaTracing.fromConfig(ConfigFactory.parseString(config).withFallback(reference),
+        AkkaTracingTest.class.getClassLoader());
+  }
+}
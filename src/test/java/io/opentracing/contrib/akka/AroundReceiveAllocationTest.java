@@ -0,0 +1,256 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.testkit.TestActorRef;
+import io.opentracing.Tracer;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import scala.PartialFunction;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+import scala.runtime.BoxedUnit;
+
+/**
+ * Checks that the traced base classes dispatch unwrapped messages without allocating.
+ */
+@RunWith(Parameterized.class)
+public class AroundReceiveAllocationTest {
+  private static final int WARMUP_ITERATIONS = 200_000;
+  private static final int ITERATIONS = 200_000;
+
+  static class TracedActor extends TracedAbstractActor {
+    TracedActor(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class TracedActorWithStash extends TracedAbstractActorWithStash {
+    TracedActorWithStash(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class TracedActorWithTimers extends TracedAbstractActorWithTimers {
+    TracedActorWithTimers(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class TracedActorWithUnboundedStash extends TracedAbstractActorWithUnboundedStash {
+    TracedActorWithUnboundedStash(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class TracedActorWithUnrestrictedStash extends TracedAbstractActorWithUnrestrictedStash {
+    TracedActorWithUnrestrictedStash(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class DistributedTracedActor extends DistributedTracedAbstractActor {
+    DistributedTracedActor(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class DistributedTracedActorWithStash extends DistributedTracedAbstractActorWithStash {
+    DistributedTracedActorWithStash(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class DistributedTracedActorWithTimers extends DistributedTracedAbstractActorWithTimers {
+    DistributedTracedActorWithTimers(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class DistributedTracedActorWithUnboundedStash extends
+      DistributedTracedAbstractActorWithUnboundedStash {
+    DistributedTracedActorWithUnboundedStash(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  static class DistributedTracedActorWithUnrestrictedStash extends
+      DistributedTracedAbstractActorWithUnrestrictedStash {
+    DistributedTracedActorWithUnrestrictedStash(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> {
+      }).build();
+    }
+  }
+
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> actors() {
+    return Arrays.asList(new Object[][]{
+        {"TracedAbstractActor", props(TracedActor.class, TracedActor::new)},
+        {"TracedAbstractActorWithStash",
+            props(TracedActorWithStash.class, TracedActorWithStash::new)},
+        {"TracedAbstractActorWithTimers",
+            props(TracedActorWithTimers.class, TracedActorWithTimers::new)},
+        {"TracedAbstractActorWithUnboundedStash",
+            props(TracedActorWithUnboundedStash.class, TracedActorWithUnboundedStash::new)},
+        {"TracedAbstractActorWithUnrestrictedStash",
+            dequeProps(TracedActorWithUnrestrictedStash.class,
+                TracedActorWithUnrestrictedStash::new)},
+        {"DistributedTracedAbstractActor",
+            props(DistributedTracedActor.class, DistributedTracedActor::new)},
+        {"DistributedTracedAbstractActorWithStash",
+            props(DistributedTracedActorWithStash.class, DistributedTracedActorWithStash::new)},
+        {"DistributedTracedAbstractActorWithTimers",
+            props(DistributedTracedActorWithTimers.class, DistributedTracedActorWithTimers::new)},
+        {"DistributedTracedAbstractActorWithUnboundedStash",
+            props(DistributedTracedActorWithUnboundedStash.class,
+                DistributedTracedActorWithUnboundedStash::new)},
+        {"DistributedTracedAbstractActorWithUnrestrictedStash",
+            dequeProps(DistributedTracedActorWithUnrestrictedStash.class,
+                DistributedTracedActorWithUnrestrictedStash::new)},
+    });
+  }
+
+  private static <A extends AbstractActor> Function<Tracer, Props> props(Class<A> actorClass,
+      Function<Tracer, A> factory) {
+    return tracer -> Props.create(actorClass, () -> factory.apply(tracer));
+  }
+
+  private static <A extends AbstractActor> Function<Tracer, Props> dequeProps(
+      Class<A> actorClass, Function<Tracer, A> factory) {
+    return tracer -> Props.create(actorClass, () -> factory.apply(tracer))
+        .withMailbox("akka.actor.mailbox.unbounded-deque-based");
+  }
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+  private final Function<Tracer, Props> props;
+  private ActorSystem system;
+
+  public AroundReceiveAllocationTest(String name, Function<Tracer, Props> props) {
+    this.props = props;
+  }
+
+  @Before
+  public void before() {
+    system = ActorSystem.create("testSystem");
+  }
+
+  @After
+  public void after() throws Exception {
+    Await.result(system.terminate(), Duration.create(3, "seconds"));
+  }
+
+  @Test
+  public void testUnwrappedMessageDoesNotAllocate() {
+    final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+    final com.sun.management.ThreadMXBean allocationBean =
+        (com.sun.management.ThreadMXBean) threadBean;
+    assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+    allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+    final TestActorRef<AbstractActor> ref = TestActorRef.create(system, props.apply(mockTracer));
+    final AbstractActor actor = ref.underlyingActor();
+    final PartialFunction<Object, BoxedUnit> receive = actor.receive();
+    final Object message = "foo";
+
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      actor.aroundReceive(receive, message);
+    }
+
+    final long threadId = Thread.currentThread().getId();
+    final long before = allocationBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < ITERATIONS; i++) {
+      actor.aroundReceive(receive, message);
+    }
+    final long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+    assertEquals("bytes/op", 0, allocated / ITERATIONS);
+  }
+}
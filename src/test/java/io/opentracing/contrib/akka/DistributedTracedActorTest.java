@@ -0,0 +1,335 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.opentracing.Scope;
+import io.opentracing.ScopeManager;
+import io.opentracing.Span;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.junit.Before;
+import org.junit.Test;
+import scala.PartialFunction;
+import scala.runtime.BoxedUnit;
+
+public class DistributedTracedActorTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+  private final List<Object> received = new ArrayList<>();
+  private final List<Span> activeSpans = new ArrayList<>();
+  private final BiConsumer<PartialFunction<Object, BoxedUnit>, Object> superConsumer =
+      (receive, message) -> {
+        received.add(message);
+        activeSpans.add(mockTracer.activeSpan());
+      };
+
+  @Before
+  public void before() {
+    mockTracer.reset();
+    received.clear();
+    activeSpans.clear();
+  }
+
+  @Test
+  public void testSampledContext() {
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage.wrap(mockTracer, parent, "foo");
+
+    DistributedTracedActor.Utils
+        .aroundReceive(superConsumer, mockTracer, ReceiveSettings.DEFAULT, null, message);
+
+    assertEquals("foo", received.get(0));
+    assertEquals(parent.context().traceId(),
+        ((MockSpan) activeSpans.get(0)).context().traceId());
+    assertEquals(1, mockTracer.finishedSpans().size());
+    assertEquals("receive", mockTracer.finishedSpans().get(0).operationName());
+  }
+
+  @Test
+  public void testUnsampledContext() {
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage.wrap(mockTracer, parent, "foo");
+
+    DistributedTracedActor.Utils
+        .aroundReceive(superConsumer, mockTracer,
+            ReceiveSettings.DEFAULT.withSamplingPolicy(spanContext -> false), null, message);
+
+    assertEquals("foo", received.get(0));
+    MockSpan.MockContext activeContext = (MockSpan.MockContext) activeSpans.get(0).context();
+    assertEquals(parent.context().spanId(), activeContext.spanId());
+    assertEquals(0, mockTracer.finishedSpans().size());
+  }
+
+  @Test
+  public void testSenderUnsampledContext() {
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage
+        .wrap(mockTracer, parent, "foo", Propagation.TEXT_MAP, spanContext -> false);
+    BiConsumer<PartialFunction<Object, BoxedUnit>, Object> childConsumer = (receive, msg) -> {
+      superConsumer.accept(receive, msg);
+      mockTracer.buildSpan("child").start().finish();
+    };
+
+    DistributedTracedActor.Utils
+        .aroundReceive(childConsumer, mockTracer, ReceiveSettings.DEFAULT, null, message);
+
+    assertEquals("foo", received.get(0));
+    assertEquals(1, mockTracer.finishedSpans().size());
+    assertEquals(parent.context().spanId(), mockTracer.finishedSpans().get(0).parentId());
+  }
+
+  @Test
+  public void testUnsampledContextChildSpan() {
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    SamplingPolicy unsampled = spanContext -> false;
+    SpanGovernor governor = SpanGovernor.perSecond(1);
+    ReceiveSettings settings = ReceiveSettings.DEFAULT
+        .withSamplingPolicy(unsampled)
+        .withSpanGovernor(governor);
+    BiConsumer<PartialFunction<Object, BoxedUnit>, Object> childConsumer = (receive, msg) -> {
+      superConsumer.accept(receive, msg);
+      mockTracer.buildSpan("child").start().finish();
+    };
+
+    DistributedTracedActor.Utils.aroundReceive(childConsumer, mockTracer, settings, null,
+        DistributedTracedMessage.wrap(mockTracer, parent, "foo"));
+
+    // The child joins the unsampled trace instead of starting a new root.
+    assertEquals(1, mockTracer.finishedSpans().size());
+    MockSpan child = mockTracer.finishedSpans().get(0);
+    assertEquals("child", child.operationName());
+    assertEquals(parent.context().traceId(), child.context().traceId());
+    assertEquals(parent.context().spanId(), child.parentId());
+    assertTrue("unsampled receive took from the budget", governor.tryAcquire());
+  }
+
+  @Test
+  public void testSpanNaming() {
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage.wrap(mockTracer, parent, "foo");
+    AtomicInteger computed = new AtomicInteger();
+    SpanNaming spanNaming = new SpanNaming() {
+      @Override
+      public String operationName(Class<?> messageClass) {
+        computed.incrementAndGet();
+        return SpanNaming.MESSAGE_CLASS.operationName(messageClass);
+      }
+
+      @Override
+      public Map<String, String> tags(Class<?> messageClass) {
+        return Collections.singletonMap("message.class", messageClass.getName());
+      }
+    };
+    ReceiveSettings settings = ReceiveSettings.DEFAULT.withSpanNaming(spanNaming);
+
+    DistributedTracedActor.Utils.aroundReceive(superConsumer, mockTracer, settings, null, message);
+    DistributedTracedActor.Utils.aroundReceive(superConsumer, mockTracer, settings, null, message);
+
+    assertEquals(1, computed.get());
+    assertEquals(2, mockTracer.finishedSpans().size());
+    MockSpan span = mockTracer.finishedSpans().get(0);
+    assertEquals("receive:String", span.operationName());
+    assertEquals("java.lang.String", span.tags().get("message.class"));
+    assertEquals("java-akka", span.tags().get("component"));
+  }
+
+  @Test
+  public void testQueueTime() {
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage.wrapTimed(mockTracer, parent, "foo");
+    LatencyHistogram histogram = new LatencyHistogram();
+    ReceiveSettings settings = ReceiveSettings.DEFAULT.withQueueTimeRecorder(histogram);
+
+    DistributedTracedActor.Utils.aroundReceive(superConsumer, mockTracer, settings, null, message);
+    DistributedTracedActor.Utils.aroundReceive(superConsumer, mockTracer, settings, null,
+        DistributedTracedMessage.wrap(mockTracer, parent, "bar"));
+
+    assertEquals(1, histogram.count());
+    assertEquals(2, mockTracer.finishedSpans().size());
+    assertNotNull(mockTracer.finishedSpans().get(0).tags()
+        .get(QueueTimeRecorder.QUEUE_TIME_TAG));
+    assertNull(mockTracer.finishedSpans().get(1).tags().get(QueueTimeRecorder.QUEUE_TIME_TAG));
+  }
+
+  @Test
+  public void testContextOnly() {
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage.wrap(mockTracer, parent, "foo");
+    ReceiveSettings settings = ReceiveSettings.DEFAULT.withReceiveMode(ReceiveMode.CONTEXT_ONLY);
+    BiConsumer<PartialFunction<Object, BoxedUnit>, Object> childConsumer = (receive, msg) -> {
+      superConsumer.accept(receive, msg);
+      mockTracer.buildSpan("child").start().finish();
+    };
+
+    DistributedTracedActor.Utils
+        .aroundReceive(childConsumer, mockTracer, settings, null, message);
+
+    assertEquals("foo", received.get(0));
+    MockSpan.MockContext activeContext = (MockSpan.MockContext) activeSpans.get(0).context();
+    assertEquals(parent.context().traceId(), activeContext.traceId());
+    assertEquals(parent.context().spanId(), activeContext.spanId());
+    assertNull(mockTracer.activeSpan());
+
+    assertEquals(1, mockTracer.finishedSpans().size());
+    MockSpan child = mockTracer.finishedSpans().get(0);
+    assertEquals("child", child.operationName());
+    assertEquals(parent.context().spanId(), child.parentId());
+  }
+
+  @Test
+  public void testContextOnlyRejectedByScopeManager() {
+    List<LogRecord> warnings = new ArrayList<>();
+    Handler handler = new Handler() {
+      @Override
+      public void publish(LogRecord record) {
+        warnings.add(record);
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    Logger.getLogger(ContextSpan.class.getName()).addHandler(handler);
+    MockTracer tracer = new MockTracer(new OwnSpansScopeManager());
+    MockSpan parent = tracer.buildSpan("one").start();
+    ReceiveSettings settings = ReceiveSettings.DEFAULT.withReceiveMode(ReceiveMode.CONTEXT_ONLY);
+    BiConsumer<PartialFunction<Object, BoxedUnit>, Object> consumer = (receive, msg) -> {
+      received.add(msg);
+      activeSpans.add(tracer.activeSpan());
+    };
+
+    for (int i = 0; i < 2; i++) {
+      Object message = DistributedTracedMessage.wrap(tracer, parent, "foo");
+      DistributedTracedActor.Utils.aroundReceive(consumer, tracer, settings, null, message);
+    }
+
+    assertEquals(2, received.size());
+    assertEquals(2, tracer.finishedSpans().size());
+    for (MockSpan span : tracer.finishedSpans()) {
+      assertEquals("receive", span.operationName());
+      assertEquals(parent.context().spanId(), span.parentId());
+    }
+    assertEquals(parent.context().traceId(),
+        ((MockSpan) activeSpans.get(0)).context().traceId());
+    assertNull(tracer.activeSpan());
+
+    Logger.getLogger(ContextSpan.class.getName()).removeHandler(handler);
+    assertEquals(1, warnings.size());
+    assertEquals(Level.WARNING, warnings.get(0).getLevel());
+  }
+
+  @Test
+  public void testSpanGovernor() {
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    SpanGovernor governor = SpanGovernor.perSecond(1);
+    ReceiveSettings settings = ReceiveSettings.DEFAULT.withSpanGovernor(governor);
+
+    for (int i = 0; i < 3; i++) {
+      Object message = DistributedTracedMessage.wrap(mockTracer, parent, "foo");
+      DistributedTracedActor.Utils
+          .aroundReceive(superConsumer, mockTracer, settings, null, message);
+    }
+
+    assertEquals(1, mockTracer.finishedSpans().size());
+    assertEquals(2, governor.degraded());
+    for (Span activeSpan : activeSpans) {
+      assertEquals(parent.context().traceId(),
+          ((MockSpan.MockContext) activeSpan.context()).traceId());
+    }
+  }
+
+  @Test
+  public void testSpanGovernorRejectedByScopeManager() {
+    MockTracer tracer = new MockTracer(new OwnSpansScopeManager());
+    MockSpan parent = tracer.buildSpan("one").start();
+    SpanGovernor governor = SpanGovernor.perSecond(1);
+    ReceiveSettings settings = ReceiveSettings.DEFAULT.withSpanGovernor(governor);
+    BiConsumer<PartialFunction<Object, BoxedUnit>, Object> consumer = (receive, msg) -> {
+      received.add(msg);
+      activeSpans.add(tracer.activeSpan());
+    };
+
+    for (int i = 0; i < 3; i++) {
+      Object message = DistributedTracedMessage.wrap(tracer, parent, "foo");
+      DistributedTracedActor.Utils.aroundReceive(consumer, tracer, settings, null, message);
+    }
+
+    assertEquals(3, received.size());
+    assertEquals(1, tracer.finishedSpans().size());
+    assertEquals(2, governor.degraded());
+    assertNull(activeSpans.get(1));
+    assertNull(activeSpans.get(2));
+  }
+
+  @Test
+  public void testContextOnlyUnwrappedMessage() {
+    ReceiveSettings settings = ReceiveSettings.DEFAULT.withReceiveMode(ReceiveMode.CONTEXT_ONLY);
+
+    DistributedTracedActor.Utils
+        .aroundReceive(superConsumer, mockTracer, settings, null, "foo");
+
+    assertEquals("foo", received.get(0));
+    assertNull(activeSpans.get(0));
+  }
+
+  @Test
+  public void testUnwrappedMessage() {
+    DistributedTracedActor.Utils
+        .aroundReceive(superConsumer, mockTracer, ReceiveSettings.DEFAULT, null, "foo");
+
+    assertEquals("foo", received.get(0));
+    assertNull(activeSpans.get(0));
+    assertEquals(0, mockTracer.finishedSpans().size());
+  }
+
+  /**
+   * Rejects spans it did not create, like Brave's scope manager does.
+   */
+  private static class OwnSpansScopeManager implements ScopeManager {
+    private final ScopeManager delegate = new ThreadLocalScopeManager();
+
+    @Override
+    public Scope activate(Span span) {
+      if (!(span instanceof MockSpan)) {
+        throw new IllegalArgumentException("Span must be a MockSpan");
+      }
+      return delegate.activate(span);
+    }
+
+    @Override
+    public Span activeSpan() {
+      return delegate.activeSpan();
+    }
+  }
+}
@@ -15,6 +15,7 @@ package io.opentracing.contrib.akka;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 
 import akka.cluster.sharding.ShardRegion;
 import io.opentracing.Span;
@@ -136,4 +137,40 @@ public class DistributedTracedMessageExtractorTest {
     assertNotEquals(((DistributedTracedMessage) tracedMessage).activeSpan().context().toTraceId(),
         ((DistributedTracedMessage) extractedMessage).activeSpan().context().toTraceId());
   }
+
+  @Test
+  public void testEntityMessageKeepsHeaders() {
+    MessageExtractorAdapter messageExtractorAdapter = new MessageExtractorAdapter();
+    DistributedTracedMessageExtractor extractor = new DistributedTracedMessageExtractor(
+        messageExtractorAdapter);
+
+    String message = "foo";
+    Span span = mockTracer.buildSpan("one").start();
+    DistributedTracedMessage<?> tracedMessage =
+        (DistributedTracedMessage<?>) DistributedTracedMessage.wrap(span, message);
+    Object extractedMessage = extractor.entityMessage(tracedMessage);
+
+    assertEquals(DistributedTracedMessage.class, extractedMessage.getClass());
+    DistributedTracedMessage<?> extractedTracedMessage =
+        (DistributedTracedMessage<?>) extractedMessage;
+    assertEquals(message.getClass().toString(), extractedTracedMessage.message());
+    assertSame(tracedMessage.carrier(), extractedTracedMessage.carrier());
+  }
+
+  @Test
+  public void testEntityMessageUnchangedPayload() {
+    MessageExtractorAdapter messageExtractorAdapter = new MessageExtractorAdapter() {
+      @Override
+      public Object entityMessage(Object message) {
+        return message;
+      }
+    };
+    DistributedTracedMessageExtractor extractor = new DistributedTracedMessageExtractor(
+        messageExtractorAdapter);
+
+    Span span = mockTracer.buildSpan("one").start();
+    Object tracedMessage = DistributedTracedMessage.wrap(span, "foo");
+
+    assertSame(tracedMessage, extractor.entityMessage(tracedMessage));
+  }
 }
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.serialization.Serialization;
+import akka.serialization.SerializationExtension;
+import akka.serialization.Serializer;
+import io.opentracing.Span;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.mock.MockTracer.Propagator;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.nio.ByteBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+public class DistributedTracedMessageSerializerTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+  private final MockTracer binaryTracer =
+      new MockTracer(new ThreadLocalScopeManager(), Propagator.BINARY);
+  private ActorSystem system;
+  private Serialization serialization;
+
+  @Before
+  public void before() {
+    mockTracer.reset();
+    binaryTracer.reset();
+    system = ActorSystem.create("testSystem");
+    serialization = SerializationExtension.get(system);
+  }
+
+  @After
+  public void after() throws Exception {
+    Await.result(system.terminate(), Duration.create(3, "seconds"));
+  }
+
+  @Test
+  public void testBinding() {
+    Span span = mockTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage.wrap(mockTracer, span, "foo");
+
+    Serializer serializer = serialization.findSerializerFor(message);
+    assertTrue(serializer instanceof DistributedTracedMessageSerializer);
+  }
+
+  @Test
+  public void testTextMapRoundTrip() {
+    Span span = mockTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage.wrap(mockTracer, span, "foo");
+
+    DistributedTracedMessage<?> result = byteArrayRoundTrip(message);
+
+    assertEquals("foo", result.message());
+    assertEquals(span.context().toTraceId(),
+        result.activeSpan(mockTracer).context().toTraceId());
+  }
+
+  @Test
+  public void testBinaryRoundTrip() {
+    Span span = binaryTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage
+        .wrap(binaryTracer, span, "foo", Propagation.BINARY);
+
+    DistributedTracedMessage<?> result = byteArrayRoundTrip(message);
+
+    assertEquals("foo", result.message());
+    assertEquals(span.context().toTraceId(),
+        result.activeSpan(binaryTracer).context().toTraceId());
+  }
+
+  @Test
+  public void testByteBufferRoundTrip() throws Exception {
+    Span span = mockTracer.buildSpan("one").start();
+    byte[] payload = new byte[]{1, 2, 3};
+    Object message = DistributedTracedMessage.wrap(mockTracer, span, payload);
+
+    DistributedTracedMessageSerializer serializer =
+        (DistributedTracedMessageSerializer) serialization.findSerializerFor(message);
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    serializer.toBinary(message, buffer);
+    buffer.flip();
+    DistributedTracedMessage<?> result = (DistributedTracedMessage<?>) serializer
+        .fromBinary(buffer, serializer.manifest(message));
+
+    assertArrayEquals(payload, (byte[]) result.message());
+    assertEquals(span.context().toTraceId(),
+        result.activeSpan(mockTracer).context().toTraceId());
+  }
+
+  @Test
+  public void testByteBufferMatchesByteArray() {
+    Span span = mockTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage.wrap(mockTracer, span, "foo");
+
+    DistributedTracedMessageSerializer serializer =
+        (DistributedTracedMessageSerializer) serialization.findSerializerFor(message);
+    byte[] bytes = serializer.toBinary(message);
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    serializer.toBinary(message, buffer);
+    buffer.flip();
+
+    assertEquals(ByteBuffer.wrap(bytes), buffer);
+  }
+
+  @Test
+  public void testLocalTargetCarriesLiveSpan() {
+    ActorRef target = system.actorOf(Props.create(NoopActor.class, NoopActor::new));
+    Span span = mockTracer.buildSpan("one").start();
+
+    DistributedTracedMessage<?> message = (DistributedTracedMessage<?>) DistributedTracedMessage
+        .wrap(mockTracer, span, "foo", target);
+
+    assertTrue(message.carrier() instanceof LocalSpanCarrier);
+    assertSame(span.context(), message.carrier().extract(mockTracer));
+    assertEquals(span.context().toTraceId(),
+        message.activeSpan(mockTracer).context().toTraceId());
+  }
+
+  @Test
+  public void testLocalTargetInjectsOnSerialization() {
+    ActorRef target = system.actorOf(Props.create(NoopActor.class, NoopActor::new));
+    Span span = mockTracer.buildSpan("one").start();
+    Object message = DistributedTracedMessage.wrap(mockTracer, span, "foo", target);
+
+    DistributedTracedMessage<?> result = byteArrayRoundTrip(message);
+
+    assertTrue(result.carrier() instanceof TextMapCarrier);
+    assertEquals("foo", result.message());
+    assertEquals(span.context().toTraceId(),
+        result.activeSpan(mockTracer).context().toTraceId());
+  }
+
+  @Test
+  public void testMetadataCarrierLeavesContextOut() {
+    Span span = mockTracer.buildSpan("one").start();
+    Object message = new DistributedTracedMessage<>("foo", new MetadataCarrier(span.context()));
+
+    DistributedTracedMessage<?> result = byteArrayRoundTrip(message);
+
+    assertTrue(result.carrier() instanceof MetadataCarrier);
+    assertNull(result.carrier().extract(mockTracer));
+    assertEquals("foo", result.message());
+  }
+
+  @Test
+  public void testUnsampledCarrierKeepsDecisionOnly() {
+    Span span = mockTracer.buildSpan("one").start();
+    Object message = new DistributedTracedMessage<>("foo", new UnsampledCarrier(span.context()));
+
+    DistributedTracedMessage<?> result = byteArrayRoundTrip(message);
+
+    assertTrue(result.unsampled());
+    assertNull(result.spanContext(mockTracer));
+    assertEquals("foo", result.message());
+  }
+
+  static class NoopActor extends AbstractActor {
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().build();
+    }
+  }
+
+  private DistributedTracedMessage<?> byteArrayRoundTrip(Object message) {
+    Serializer serializer = serialization.findSerializerFor(message);
+    byte[] bytes = serialization.serialize(message).get();
+    return (DistributedTracedMessage<?>) serialization
+        .deserialize(bytes, serializer.identifier(),
+            ((DistributedTracedMessageSerializer) serializer).manifest(message)).get();
+  }
+}
@@ -15,16 +15,27 @@ package io.opentracing.contrib.akka;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import com.typesafe.config.ConfigFactory;
 import io.opentracing.Scope;
 import io.opentracing.Span;
+import io.opentracing.SpanContext;
 import io.opentracing.mock.MockTracer;
+import io.opentracing.mock.MockTracer.Propagator;
 import io.opentracing.util.GlobalTracer;
 import io.opentracing.util.GlobalTracerTestUtil;
 import io.opentracing.util.ThreadLocalScopeManager;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
 
 public class DistributedTracedMessageTest {
 
@@ -101,4 +112,86 @@ public class DistributedTracedMessageTest {
         tracedMessage.activeSpan(mockTracer).context().toSpanId());
     assertEquals(originalMessage, tracedMessage.message());
   }
+
+  @Test
+  public void testUnsampledSpan() {
+    Span span = mockTracer.buildSpan("one").start();
+
+    DistributedTracedMessage<?> message = (DistributedTracedMessage<?>) DistributedTracedMessage
+        .wrap(mockTracer, span, "foo", Propagation.TEXT_MAP, spanContext -> false);
+    assertTrue(message.unsampled());
+    assertTrue(message.carrier() instanceof UnsampledCarrier);
+    assertSame(span.context(), message.spanContext(mockTracer));
+  }
+
+  @Test
+  public void testBinaryPropagation() {
+    MockTracer binaryTracer = new MockTracer(new ThreadLocalScopeManager(), Propagator.BINARY);
+    String originalMessage = "foo";
+    Span span = binaryTracer.buildSpan("one").start();
+
+    Object message = DistributedTracedMessage
+        .wrap(binaryTracer, span, originalMessage, Propagation.BINARY);
+    assertTrue(message instanceof DistributedTracedMessage);
+
+    DistributedTracedMessage tracedMessage = (DistributedTracedMessage) message;
+    Span receiveSpan = tracedMessage.activeSpan(binaryTracer);
+    assertEquals(span.context().toTraceId(), receiveSpan.context().toTraceId());
+    assertNotEquals(span.context().toSpanId(), receiveSpan.context().toSpanId());
+    assertEquals(originalMessage, tracedMessage.message());
+  }
+
+  @Test
+  public void testSpanContextExtractedOnce() {
+    SpanContext spanContext = mockTracer.buildSpan("one").start().context();
+    AtomicInteger extractions = new AtomicInteger();
+    DistributedTracedMessage<String> message = new DistributedTracedMessage<>("foo", tracer -> {
+      extractions.incrementAndGet();
+      return spanContext;
+    });
+
+    assertSame(spanContext, message.spanContext(mockTracer));
+    assertSame(spanContext, message.spanContext(mockTracer));
+    assertSame(spanContext, message.withMessage("bar").spanContext(mockTracer));
+    assertEquals(1, extractions.get());
+
+    message.spanContext(new MockTracer());
+    assertEquals(2, extractions.get());
+  }
+
+  @Test
+  public void testMissingSpanContextExtractedOnce() {
+    AtomicInteger extractions = new AtomicInteger();
+    DistributedTracedMessage<String> message = new DistributedTracedMessage<>("foo", tracer -> {
+      extractions.incrementAndGet();
+      return null;
+    });
+
+    assertNull(message.spanContext(mockTracer));
+    assertNull(message.spanContext(mockTracer));
+    assertEquals(1, extractions.get());
+  }
+
+  @Test
+  public void testRemoteTargetInjectsHeaders() throws Exception {
+    ActorSystem system = ActorSystem.create("testSystem", ConfigFactory.parseString(
+        "akka.actor.provider = remote\n"
+            + "akka.remote.artery.transport = tcp\n"
+            + "akka.remote.artery.canonical.hostname = 127.0.0.1\n"
+            + "akka.remote.artery.canonical.port = 0"));
+    try {
+      ActorRef target = ((ExtendedActorSystem) system).provider()
+          .resolveActorRef("akka://otherSystem@127.0.0.1:2552/user/target");
+      Span span = mockTracer.buildSpan("one").start();
+
+      DistributedTracedMessage<?> message = (DistributedTracedMessage<?>) DistributedTracedMessage
+          .wrap(mockTracer, span, "foo", target);
+
+      assertTrue(message.carrier() instanceof TextMapCarrier);
+      assertEquals(span.context().toTraceId(),
+          message.activeSpan(mockTracer).context().toTraceId());
+    } finally {
+      Await.result(system.terminate(), Duration.create(3, "seconds"));
+    }
+  }
 }
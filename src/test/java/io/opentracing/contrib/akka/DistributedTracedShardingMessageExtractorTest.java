@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import akka.cluster.sharding.typed.ShardingMessageExtractor;
+import io.opentracing.Span;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.util.ThreadLocalScopeManager;
+import org.junit.Test;
+
+public class DistributedTracedShardingMessageExtractorTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+
+  static class Envelope {
+    final String entityId;
+    final String payload;
+
+    Envelope(String entityId, String payload) {
+      this.entityId = entityId;
+      this.payload = payload;
+    }
+  }
+
+  static class EnvelopeExtractor extends ShardingMessageExtractor<Envelope, String> {
+    @Override
+    public String entityId(Envelope message) {
+      return message.entityId;
+    }
+
+    @Override
+    public String shardId(String entityId) {
+      return "shard-" + entityId;
+    }
+
+    @Override
+    public String unwrapMessage(Envelope message) {
+      return message.payload;
+    }
+  }
+
+  private final DistributedTracedShardingMessageExtractor<Envelope, String> extractor =
+      new DistributedTracedShardingMessageExtractor<>(new EnvelopeExtractor());
+
+  @Test
+  public void testWithoutDistributedTracedMessage() {
+    Envelope envelope = new Envelope("one", "foo");
+
+    assertEquals("one", extractor.entityId(envelope));
+    assertEquals("shard-one", extractor.shardId("one"));
+    assertEquals("foo", extractor.unwrapMessage(envelope));
+  }
+
+  @Test
+  public void testWithDistributedTracedMessage() {
+    Span span = mockTracer.buildSpan("one").start();
+    DistributedTracedMessage<?> tracedMessage = (DistributedTracedMessage<?>)
+        DistributedTracedMessage.wrap(mockTracer, span, new Envelope("one", "foo"));
+
+    assertEquals("one", extractor.entityId(tracedMessage));
+    Object unwrapped = extractor.unwrapMessage(tracedMessage);
+    assertEquals(DistributedTracedMessage.class, unwrapped.getClass());
+    DistributedTracedMessage<?> unwrappedTracedMessage = (DistributedTracedMessage<?>) unwrapped;
+    assertEquals("foo", unwrappedTracedMessage.message());
+    assertSame(tracedMessage.carrier(), unwrappedTracedMessage.carrier());
+  }
+}
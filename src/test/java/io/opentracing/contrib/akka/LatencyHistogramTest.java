@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    assertEquals(0, histogram.count());
+    assertEquals(0, histogram.percentileNanos(99));
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 90; i++) {
+      histogram.recordNanos(1_000);
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.recordNanos(1_000_000);
+    }
+
+    assertEquals(100, histogram.count());
+    assertEquals(1_023, histogram.percentileNanos(50));
+    assertEquals(1_023, histogram.percentileNanos(90));
+    assertEquals(1_048_575, histogram.percentileNanos(99));
+
+    histogram.reset();
+    assertEquals(0, histogram.count());
+  }
+
+  @Test
+  public void testBounds() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.recordNanos(0);
+    histogram.recordNanos(-5);
+    histogram.recordNanos(Long.MAX_VALUE);
+
+    assertEquals(0, histogram.percentileNanos(50));
+    assertEquals(Long.MAX_VALUE, histogram.percentileNanos(100));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPercentile() {
+    new LatencyHistogram().percentileNanos(101);
+  }
+}
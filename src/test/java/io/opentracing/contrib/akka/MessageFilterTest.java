@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.typesafe.config.ConfigFactory;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class MessageFilterTest {
+
+  interface NotTraced {
+  }
+
+  static class Tick implements NotTraced {
+  }
+
+  static class Heartbeat {
+  }
+
+  static class LateHeartbeat extends Heartbeat {
+  }
+
+  static class Order implements Serializable {
+  }
+
+  @Test
+  public void testDefault() {
+    assertSame(MessageFilter.ALL, MessageFilter.global());
+    assertTrue(MessageFilter.global().isTraced(String.class));
+  }
+
+  @Test
+  public void testEmptyConfig() {
+    assertSame(MessageFilter.ALL, MessageFilter.fromConfig(ConfigFactory.empty()));
+  }
+
+  @Test
+  public void testExclude() {
+    MessageFilter filter = MessageFilter.of(Collections.emptyList(), Arrays.asList(
+        NotTraced.class.getName(), Heartbeat.class.getName(), "java.lang.*"));
+
+    assertFalse(filter.isTraced(Tick.class));
+    assertFalse(filter.isTraced(Heartbeat.class));
+    assertFalse(filter.isTraced(LateHeartbeat.class));
+    assertFalse(filter.isTraced(String.class));
+    assertTrue(filter.isTraced(Order.class));
+  }
+
+  @Test
+  public void testInclude() {
+    MessageFilter filter = MessageFilter.fromConfig(ConfigFactory.parseString(
+        "include = [\"java.io.Serializable\", \"io.opentracing.contrib.akka.*\"]\n"
+            + "exclude = [\"" + LateHeartbeat.class.getName() + "\"]"));
+
+    assertTrue(filter.isTraced(Order.class));
+    assertTrue(filter.isTraced(Heartbeat.class));
+    assertFalse(filter.isTraced(LateHeartbeat.class));
+    assertFalse(filter.isTraced(Object.class));
+  }
+}
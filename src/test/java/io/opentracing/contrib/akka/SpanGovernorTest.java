@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SpanGovernorTest {
+
+  @Test
+  public void testUnlimited() {
+    for (int i = 0; i < 100_000; i++) {
+      assertTrue(SpanGovernor.UNLIMITED.tryAcquire());
+    }
+    assertEquals(0, SpanGovernor.UNLIMITED.degraded());
+  }
+
+  @Test
+  public void testBudget() {
+    SpanGovernor governor = SpanGovernor.perSecond(10);
+
+    int acquired = 0;
+    for (int i = 0; i < 100; i++) {
+      if (governor.tryAcquire()) {
+        acquired++;
+      }
+    }
+
+    // One second worth of spans, plus at most one refilled while looping.
+    assertTrue(acquired >= 10 && acquired <= 11);
+    assertEquals(100 - acquired, governor.degraded());
+    assertFalse(governor.tryAcquire());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBudget() {
+    SpanGovernor.perSecond(0);
+  }
+}
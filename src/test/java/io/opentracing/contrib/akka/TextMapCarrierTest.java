@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.noop.NoopTracerFactory;
+import io.opentracing.propagation.Format;
+import io.opentracing.propagation.TextMapInject;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.util.Iterator;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextMapCarrierTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+
+  @Before
+  public void before() {
+    mockTracer.reset();
+  }
+
+  @Test
+  public void testRoundTrip() {
+    Span span = mockTracer.buildSpan("one").start();
+
+    TextMapCarrier carrier = TextMapCarrier.inject(mockTracer, span.context());
+    SpanContext extracted = carrier.extract(mockTracer);
+
+    assertEquals(span.context().toTraceId(), extracted.toTraceId());
+    assertEquals(span.context().toSpanId(), extracted.toSpanId());
+  }
+
+  @Test
+  public void testExactlySized() {
+    Span span = mockTracer.buildSpan("one").start();
+
+    TextMapCarrier carrier = TextMapCarrier.inject(mockTracer, span.context());
+
+    int entries = 0;
+    for (Map.Entry<String, String> ignored : carrier) {
+      entries++;
+    }
+    assertEquals(2, entries);
+    assertEquals(2, carrier.size());
+  }
+
+  @Test
+  public void testInternedKeys() {
+    TextMapCarrier carrier = TextMapCarrier.inject(new HeaderTracer(), null);
+
+    assertSame("key".intern(), carrier.key(0));
+    assertEquals("second", carrier.value(0));
+  }
+
+  @Test
+  public void testRepeatedKeyReplacesValue() {
+    TextMapCarrier carrier = TextMapCarrier.inject(new HeaderTracer(), null);
+
+    assertEquals(1, carrier.size());
+    Iterator<Map.Entry<String, String>> iterator = carrier.iterator();
+    assertEquals("second", iterator.next().getValue());
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  public void testEmpty() {
+    Tracer tracer = NoopTracerFactory.create();
+
+    TextMapCarrier carrier =
+        TextMapCarrier.inject(tracer, tracer.buildSpan("one").start().context());
+
+    assertEquals(0, carrier.size());
+    assertFalse(carrier.iterator().hasNext());
+  }
+
+  /**
+   * Injects a dynamically built key twice, to observe interning and de-duplication.
+   */
+  private static class HeaderTracer extends MockTracer {
+    @Override
+    public <C> void inject(SpanContext spanContext, Format<C> format, C carrier) {
+      TextMapInject inject = (TextMapInject) carrier;
+      inject.put(new String(new char[]{'k', 'e', 'y'}), "first");
+      inject.put(new String(new char[]{'k', 'e', 'y'}), "second");
+    }
+  }
+}
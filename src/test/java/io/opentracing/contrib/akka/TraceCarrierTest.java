@@ -0,0 +1,95 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.opentracing.Span;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.mock.MockTracer.Propagator;
+import io.opentracing.propagation.Format;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class TraceCarrierTest {
+
+  private final AtomicInteger injections = new AtomicInteger();
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager(),
+      new Propagator() {
+        @Override
+        public <C> void inject(MockSpan.MockContext ctx, Format<C> format, C carrier) {
+          injections.incrementAndGet();
+          Propagator.TEXT_MAP.inject(ctx, format, carrier);
+        }
+
+        @Override
+        public <C> MockSpan.MockContext extract(Format<C> format, C carrier) {
+          return Propagator.TEXT_MAP.extract(format, carrier);
+        }
+      });
+
+  @Test
+  public void testInjectsOnce() {
+    Span span = mockTracer.buildSpan("one").start();
+    TraceCarrier carrier = TraceCarrier.of(mockTracer, span);
+
+    DistributedTracedMessage<?> first = (DistributedTracedMessage<?>) carrier.wrap("foo");
+    DistributedTracedMessage<?> second = (DistributedTracedMessage<?>) carrier.wrap("bar");
+    assertEquals(1, injections.get());
+    assertNotSame(first, second);
+    assertSame(first.carrier(), second.carrier());
+    assertEquals("bar", second.message());
+
+    Span receiveSpan = second.activeSpan(mockTracer);
+    assertEquals(span.context().toTraceId(), receiveSpan.context().toTraceId());
+  }
+
+  @Test
+  public void testNoActiveSpan() {
+    TraceCarrier carrier = TraceCarrier.of(mockTracer, null);
+    assertSame(TraceCarrier.EMPTY, carrier);
+    assertTrue(carrier.isEmpty());
+    assertSame("foo", carrier.wrap("foo"));
+    assertEquals(0, injections.get());
+  }
+
+  @Test
+  public void testNotSampled() {
+    Span span = mockTracer.buildSpan("one").start();
+    TraceCarrier carrier = TraceCarrier.of(mockTracer, span, Propagation.TEXT_MAP,
+        context -> false);
+    DistributedTracedMessage<?> message = (DistributedTracedMessage<?>) carrier.wrap("foo");
+    assertTrue(message.unsampled());
+    assertEquals(0, injections.get());
+  }
+
+  @Test
+  public void testWrapTimed() {
+    Span span = mockTracer.buildSpan("one").start();
+    DistributedTracedMessage<?> message =
+        (DistributedTracedMessage<?>) TraceCarrier.of(mockTracer, span).wrapTimed("foo");
+    assertTrue(message.queueTimeNanos() >= 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullMessage() {
+    Span span = mockTracer.buildSpan("one").start();
+    TraceCarrier.of(mockTracer, span).wrap(null);
+  }
+}
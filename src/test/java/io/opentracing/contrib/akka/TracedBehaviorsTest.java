@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import akka.actor.testkit.typed.javadsl.ActorTestKit;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.javadsl.Behaviors;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TracedBehaviorsTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+  private ActorTestKit testKit;
+
+  static final class Check {
+    final String traceId;
+    final ActorRef<Boolean> replyTo;
+
+    Check(String traceId, ActorRef<Boolean> replyTo) {
+      this.traceId = traceId;
+      this.replyTo = replyTo;
+    }
+  }
+
+  private Behavior<Check> traceIdCheck() {
+    return Behaviors.receiveMessage(check -> {
+      Span span = mockTracer.activeSpan();
+      check.replyTo.tell(span != null && span.context().toTraceId().equals(check.traceId));
+      return Behaviors.same();
+    });
+  }
+
+  @Before
+  public void before() {
+    mockTracer.reset();
+    testKit = ActorTestKit.create();
+  }
+
+  @After
+  public void after() {
+    testKit.shutdownTestKit();
+  }
+
+  @Test
+  public void testDistributedTracedMessage() {
+    ActorRef<Check> actorRef = testKit.<Object>spawn(
+        TracedBehaviors.traced(mockTracer, ReceiveSettings.DEFAULT, traceIdCheck())).narrow();
+    TestProbe<Boolean> probe = testKit.createTestProbe();
+
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    try (Scope ignored = mockTracer.activateSpan(parent)) {
+      TracedBehaviors.tell(mockTracer, actorRef,
+          new Check(parent.context().toTraceId(), probe.getRef()));
+    }
+    parent.finish();
+
+    assertTrue(probe.receiveMessage());
+    await().atMost(3, TimeUnit.SECONDS).until(() -> mockTracer.finishedSpans().size() == 2);
+    MockSpan receiveSpan = mockTracer.finishedSpans().stream()
+        .filter(span -> span.operationName().equals("receive"))
+        .findFirst()
+        .get();
+    assertEquals(parent.context().spanId(),
+        receiveSpan.references().get(0).getContext().spanId());
+  }
+
+  @Test
+  public void testTracedMessage() {
+    ActorRef<Object> actorRef = testKit.spawn(
+        TracedBehaviors.traced(mockTracer, ReceiveSettings.DEFAULT, traceIdCheck()));
+    TestProbe<Boolean> probe = testKit.createTestProbe();
+
+    Span parent = mockTracer.buildSpan("one").start();
+    actorRef.tell(TracedMessage.wrap(parent, new Check(parent.context().toTraceId(),
+        probe.getRef())));
+
+    assertTrue(probe.receiveMessage());
+  }
+
+  @Test
+  public void testUnwrappedMessage() {
+    ActorRef<Object> actorRef = testKit.spawn(
+        TracedBehaviors.traced(mockTracer, ReceiveSettings.DEFAULT, traceIdCheck()));
+    TestProbe<Boolean> probe = testKit.createTestProbe();
+
+    actorRef.tell(new Check("none", probe.getRef()));
+
+    assertFalse(probe.receiveMessage());
+    assertEquals(0, mockTracer.finishedSpans().size());
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import akka.actor.ActorSystem;
+import akka.dispatch.Futures;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.ExecutionContextExecutor;
+import scala.concurrent.Future;
+import scala.concurrent.OnCompleteRunnable;
+import scala.concurrent.duration.Duration;
+
+public class TracedExecutorTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+  private ActorSystem system;
+
+  @Before
+  public void before() {
+    system = ActorSystem.create("testSystem");
+  }
+
+  @After
+  public void after() throws Exception {
+    system.terminate();
+    system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testExecutionContextPropagatesSpan() throws Exception {
+    ExecutionContextExecutor ec = TracedExecutionContext.wrap(mockTracer, system.dispatcher());
+    Span span = mockTracer.buildSpan("one").start();
+
+    CompletableFuture<Span> seen = new CompletableFuture<>();
+    try (Scope ignored = mockTracer.activateSpan(span)) {
+      ec.execute(() -> seen.complete(mockTracer.activeSpan()));
+    }
+    assertSame(span, seen.get(3, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testExecutorPropagatesSpan() throws Exception {
+    Executor executor = TracedExecutor.wrap(mockTracer, system.dispatcher());
+    Span span = mockTracer.buildSpan("one").start();
+
+    CompletableFuture<Span> seen = new CompletableFuture<>();
+    try (Scope ignored = mockTracer.activateSpan(span)) {
+      CompletableFuture.runAsync(() -> seen.complete(mockTracer.activeSpan()), executor);
+    }
+    assertSame(span, seen.get(3, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testNoActiveSpanSkipsWrapping() {
+    List<Runnable> submitted = new ArrayList<>();
+    Executor executor = TracedExecutor.wrap(mockTracer, submitted::add);
+    Runnable task = () -> { };
+
+    executor.execute(task);
+    assertSame(task, submitted.get(0));
+
+    Span span = mockTracer.buildSpan("one").start();
+    try (Scope ignored = mockTracer.activateSpan(span)) {
+      executor.execute(task);
+    }
+    assertEquals(TracedRunnable.class, submitted.get(1).getClass());
+  }
+
+  @Test
+  public void testScopeClosedAfterTask() {
+    List<Runnable> submitted = new ArrayList<>();
+    Executor executor = TracedExecutor.wrap(mockTracer, submitted::add);
+    Span span = mockTracer.buildSpan("one").start();
+
+    List<Span> seen = new ArrayList<>();
+    try (Scope ignored = mockTracer.activateSpan(span)) {
+      executor.execute(() -> seen.add(mockTracer.activeSpan()));
+    }
+    submitted.get(0).run();
+
+    assertSame(span, seen.get(0));
+    assertNull(mockTracer.activeSpan());
+    assertEquals(0, mockTracer.finishedSpans().size());
+  }
+
+  @Test
+  public void testBatchableMarkerKept() {
+    List<Runnable> submitted = new ArrayList<>();
+    Executor executor = TracedExecutor.wrap(mockTracer, submitted::add);
+    Span span = mockTracer.buildSpan("one").start();
+
+    try (Scope ignored = mockTracer.activateSpan(span)) {
+      executor.execute(new Callback());
+      executor.execute(() -> { });
+    }
+
+    assertTrue(submitted.get(0) instanceof OnCompleteRunnable);
+    assertTrue(((akka.dispatch.Batchable) submitted.get(0)).isBatchable());
+    assertEquals(TracedRunnable.class, submitted.get(1).getClass());
+  }
+
+  @Test
+  public void testFutureCallbacksPropagateSpan() throws Exception {
+    ExecutionContextExecutor ec = TracedExecutionContext.wrap(mockTracer, system.dispatcher());
+    Span span = mockTracer.buildSpan("one").start();
+
+    Future<Span> future;
+    try (Scope ignored = mockTracer.activateSpan(span)) {
+      Future<Integer> chain = Futures.successful(0);
+      for (int i = 0; i < 10; i++) {
+        chain = chain.map(n -> n + 1, ec);
+      }
+      future = chain.map(n -> mockTracer.activeSpan(), ec);
+    }
+    assertSame(span, Await.result(future, Duration.create(3, TimeUnit.SECONDS)));
+  }
+
+  @Test
+  public void testWrapIsIdempotent() {
+    Executor executor = TracedExecutor.wrap(mockTracer, Runnable::run);
+    assertSame(executor, TracedExecutor.wrap(mockTracer, executor));
+
+    ExecutionContextExecutor ec = TracedExecutionContext.wrap(mockTracer, system.dispatcher());
+    assertSame(ec, TracedExecutionContext.wrap(mockTracer, ec));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullDelegate() {
+    TracedExecutor.wrap(mockTracer, null);
+  }
+
+  private static class Callback implements Runnable, OnCompleteRunnable {
+    @Override
+    public void run() {
+    }
+  }
+}
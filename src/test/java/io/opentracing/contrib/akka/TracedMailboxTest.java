@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static akka.pattern.Patterns.ask;
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.DeadLetter;
+import akka.actor.PoisonPill;
+import akka.actor.Props;
+import akka.testkit.javadsl.TestKit;
+import akka.util.Timeout;
+import com.typesafe.config.ConfigFactory;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.Future;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+public class TracedMailboxTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+  private ActorSystem system;
+
+  static class EchoActor extends TracedAbstractActor {
+    EchoActor(MockTracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder().matchAny(x -> getSender().tell(x, getSelf())).build();
+    }
+  }
+
+  static class StashingActor extends TracedAbstractActorWithStash {
+    StashingActor(MockTracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder()
+          .matchEquals("open", x -> {
+            unstashAll();
+            getContext().become(receiveBuilder()
+                .matchAny(y -> getSender().tell(y, getSelf()))
+                .build());
+          })
+          .matchAny(x -> stash())
+          .build();
+    }
+  }
+
+  static class BlockingActor extends TracedAbstractActor {
+    private final CountDownLatch release;
+
+    BlockingActor(MockTracer tracer, CountDownLatch release) {
+      super(tracer);
+      this.release = release;
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder()
+          .matchEquals("block", x -> {
+            getSender().tell("blocked", getSelf());
+            release.await(3, TimeUnit.SECONDS);
+          })
+          .matchAny(x -> { })
+          .build();
+    }
+  }
+
+  @Before
+  public void before() {
+    system = ActorSystem.create("testSystem", ConfigFactory.parseString(
+        "dwell-time-mailbox = ${opentracing.akka.traced-mailbox} {\n"
+            + "  dwell-time = on\n"
+            + "}\n"
+            + "bounded-mailbox = ${dwell-time-mailbox} {\n"
+            + "  bounded = on\n"
+            + "  mailbox-capacity = 1\n"
+            + "  mailbox-push-timeout-time = 0s\n"
+            + "}\n"
+            + "plain-bounded-mailbox = ${bounded-mailbox} {\n"
+            + "  dwell-time = off\n"
+            + "}")
+        .withFallback(ConfigFactory.defaultReference())
+        .resolve());
+  }
+
+  @After
+  public void after() throws Exception {
+    Await.result(system.terminate(), getDefaultDuration());
+  }
+
+  @Test
+  public void testStats() throws Exception {
+    ActorRef actorRef = system.actorOf(echoProps().withMailbox("dwell-time-mailbox"), "echo");
+    for (int i = 0; i < 9; i++) {
+      actorRef.tell(i, ActorRef.noSender());
+    }
+    Await.result(ask(actorRef, "last", new Timeout(getDefaultDuration())), getDefaultDuration());
+
+    MailboxStats stats = TracedMailboxes.get(system).stats(actorRef);
+    assertEquals(10, stats.enqueued());
+    assertEquals(10, stats.dequeued());
+    assertEquals(0, stats.depth());
+    assertTrue(stats.highWaterMark() >= 1);
+    assertEquals(10, stats.dwellTime().count());
+  }
+
+  @Test
+  public void testNoDwellTimeByDefault() throws Exception {
+    ActorRef actorRef = system.actorOf(echoProps(), "echo");
+    Await.result(ask(actorRef, "foo", new Timeout(getDefaultDuration())), getDefaultDuration());
+
+    MailboxStats stats = TracedMailboxes.get(system).stats(actorRef);
+    assertEquals(1, stats.dequeued());
+    assertNull(stats.dwellTime());
+  }
+
+  @Test
+  public void testBoundedRejectionDeadLetter() {
+    assertBoundedRejection("bounded-mailbox");
+  }
+
+  @Test
+  public void testBoundedRejectionWithoutDwellTime() {
+    assertBoundedRejection("plain-bounded-mailbox");
+  }
+
+  private void assertBoundedRejection(String mailbox) {
+    TestKit probe = new TestKit(system);
+    system.getEventStream().subscribe(probe.getRef(), DeadLetter.class);
+    CountDownLatch release = new CountDownLatch(1);
+    ActorRef actorRef = system.actorOf(
+        Props.create(BlockingActor.class, () -> new BlockingActor(mockTracer, release))
+            .withMailbox(mailbox), "bounded");
+
+    actorRef.tell("block", probe.getRef());
+    probe.expectMsg("blocked");
+    actorRef.tell("queued", ActorRef.noSender());
+    actorRef.tell("rejected", ActorRef.noSender());
+
+    DeadLetter deadLetter = probe.expectMsgClass(DeadLetter.class);
+    assertEquals("rejected", deadLetter.message());
+    release.countDown();
+    await().atMost(3, TimeUnit.SECONDS)
+        .until(() -> TracedMailboxes.get(system).stats(actorRef).dequeued() == 2);
+    assertEquals(2, TracedMailboxes.get(system).stats(actorRef).enqueued());
+  }
+
+  @Test
+  public void testStash() throws Exception {
+    ActorRef actorRef = system.actorOf(
+        Props.create(StashingActor.class, () -> new StashingActor(mockTracer))
+            .withMailbox("opentracing.akka.traced-deque-mailbox"), "stashing");
+    Timeout timeout = new Timeout(getDefaultDuration());
+    Future<Object> future = ask(actorRef, "foo", timeout);
+    actorRef.tell("open", ActorRef.noSender());
+
+    assertEquals("foo", Await.result(future, getDefaultDuration()));
+    MailboxStats stats = TracedMailboxes.get(system).stats(actorRef);
+    assertEquals(3, stats.enqueued());
+    assertEquals(3, stats.dequeued());
+  }
+
+  @Test
+  public void testUnregisteredOnStop() throws Exception {
+    ActorRef actorRef = system.actorOf(echoProps(), "echo");
+    Await.result(ask(actorRef, "foo", new Timeout(getDefaultDuration())), getDefaultDuration());
+
+    actorRef.tell(PoisonPill.getInstance(), ActorRef.noSender());
+    await().atMost(3, TimeUnit.SECONDS)
+        .until(() -> TracedMailboxes.get(system).stats(actorRef) == null);
+  }
+
+  private Props echoProps() {
+    return Props.create(EchoActor.class, () -> new EchoActor(mockTracer))
+        .withMailbox("opentracing.akka.traced-mailbox");
+  }
+
+  private static FiniteDuration getDefaultDuration() {
+    return Duration.create(3, "seconds");
+  }
+}
@@ -14,10 +14,12 @@
 package io.opentracing.contrib.akka;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import io.opentracing.Scope;
 import io.opentracing.Span;
+import io.opentracing.mock.MockSpan;
 import io.opentracing.mock.MockTracer;
 import io.opentracing.util.GlobalTracer;
 import io.opentracing.util.GlobalTracerTestUtil;
@@ -87,4 +89,27 @@ public class TracedMessageTest {
     assertEquals(span, tracedMessage.activeSpan());
     assertEquals(originalMessage, tracedMessage.message());
   }
+
+  @Test
+  public void testQueueTime() {
+    Span span = mockTracer.buildSpan("one").start();
+
+    TracedMessage<?> untimed = (TracedMessage<?>) TracedMessage.wrap(span, "foo");
+    TracedMessage<?> timed = (TracedMessage<?>) TracedMessage.wrapTimed(span, "foo");
+    assertEquals(-1, untimed.queueTimeNanos());
+    assertTrue(timed.queueTimeNanos() >= 0);
+  }
+
+  @Test
+  public void testQueueTimeRecordedOnly() {
+    MockSpan span = mockTracer.buildSpan("one").start();
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    TracedActor.Utils.aroundReceive((receive, message) -> { }, mockTracer, histogram, null,
+        TracedMessage.wrapTimed(span, "foo"));
+    span.finish();
+
+    assertEquals(1, histogram.count());
+    assertNull(span.tags().get(QueueTimeRecorder.QUEUE_TIME_TAG));
+  }
 }
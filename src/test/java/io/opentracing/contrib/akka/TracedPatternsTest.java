@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.pattern.AskTimeoutException;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.tag.Tags;
+import io.opentracing.util.GlobalTracer;
+import io.opentracing.util.GlobalTracerTestUtil;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TracedPatternsTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+  private ActorSystem system;
+
+  static class TracedTraceIdCheckActor extends TracedAbstractActor {
+
+    static Props props() {
+      return Props.create(TracedTraceIdCheckActor.class, TracedTraceIdCheckActor::new);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder()
+          .matchAny(x -> {
+            Span span = tracer().scopeManager().activeSpan();
+            getSender().tell(span != null && span.context().toTraceId().equals(x), getSelf());
+          })
+          .build();
+    }
+  }
+
+  @Before
+  public void before() {
+    GlobalTracerTestUtil.resetGlobalTracer();
+    GlobalTracer.registerIfAbsent(mockTracer);
+    system = ActorSystem.create("testSystem");
+  }
+
+  @After
+  public void after() throws Exception {
+    GlobalTracerTestUtil.resetGlobalTracer();
+    system.terminate();
+    system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testAskSpan() throws Exception {
+    ActorRef actorRef = system.actorOf(
+        DistributedTracedAbstractActorTest.TraceIdCheckActor.props(), "actorOne");
+
+    Object reply;
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    try (Scope ignored = mockTracer.activateSpan(parent)) {
+      reply = TracedPatterns.ask(actorRef, parent.context().toTraceId(), Duration.ofSeconds(3))
+          .toCompletableFuture().get(3, TimeUnit.SECONDS);
+    }
+    parent.finish();
+    assertEquals(true, reply);
+
+    await().atMost(3, TimeUnit.SECONDS).until(() -> mockTracer.finishedSpans().size() == 3);
+    MockSpan askSpan = finishedSpan(TracedPatterns.OPERATION_NAME);
+    MockSpan receiveSpan = finishedSpan("receive");
+    assertEquals(parent.context().spanId(), askSpan.parentId());
+    assertEquals(Tags.SPAN_KIND_CLIENT, askSpan.tags().get(Tags.SPAN_KIND.getKey()));
+    assertEquals(actorRef.path().toString(), askSpan.tags().get(ActorTags.ACTOR_PATH));
+    assertNull(askSpan.tags().get(Tags.ERROR.getKey()));
+    assertEquals(askSpan.context().spanId(), receiveSpan.references().get(0).getContext()
+        .spanId());
+  }
+
+  @Test
+  public void testAskTracedActor() throws Exception {
+    ActorRef actorRef = system.actorOf(TracedTraceIdCheckActor.props(), "actorOne");
+
+    Object reply;
+    MockSpan parent = mockTracer.buildSpan("one").start();
+    try (Scope ignored = mockTracer.activateSpan(parent)) {
+      reply = TracedPatterns.ask(mockTracer, actorRef, parent.context().toTraceId(),
+          Duration.ofSeconds(3), TracedPatterns.Carrier.TRACED_MESSAGE)
+          .toCompletableFuture().get(3, TimeUnit.SECONDS);
+    }
+    parent.finish();
+    assertEquals(true, reply);
+
+    await().atMost(3, TimeUnit.SECONDS).until(() -> mockTracer.finishedSpans().size() == 2);
+    MockSpan askSpan = finishedSpan(TracedPatterns.OPERATION_NAME);
+    assertEquals(parent.context().spanId(), askSpan.parentId());
+    assertNull(askSpan.tags().get(Tags.ERROR.getKey()));
+  }
+
+  @Test
+  public void testAskTimeout() throws Exception {
+    ActorRef actorRef = system.actorOf(Props.empty(), "silent");
+
+    try {
+      TracedPatterns.ask(mockTracer, actorRef, "foo", Duration.ofMillis(100))
+          .toCompletableFuture().get(3, TimeUnit.SECONDS);
+      fail();
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof AskTimeoutException);
+    }
+
+    await().atMost(3, TimeUnit.SECONDS).until(() -> mockTracer.finishedSpans().size() == 1);
+    MockSpan askSpan = mockTracer.finishedSpans().get(0);
+    assertEquals(true, askSpan.tags().get(Tags.ERROR.getKey()));
+    assertEquals(true, askSpan.tags().get(TracedPatterns.TIMEOUT_TAG));
+    assertEquals(1, askSpan.logEntries().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullActor() {
+    TracedPatterns.ask(mockTracer, null, "foo", Duration.ofSeconds(1));
+  }
+
+  private MockSpan finishedSpan(String operationName) {
+    return mockTracer.finishedSpans().stream()
+        .filter(span -> span.operationName().equals(operationName))
+        .findFirst()
+        .get();
+  }
+}
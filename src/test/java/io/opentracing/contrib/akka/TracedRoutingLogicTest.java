@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
+import io.opentracing.SpanContext;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.util.GlobalTracer;
+import io.opentracing.util.GlobalTracerTestUtil;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TracedRoutingLogicTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+  private ActorSystem system;
+  private List<String> paths;
+
+  @Before
+  public void before() {
+    GlobalTracerTestUtil.resetGlobalTracer();
+    GlobalTracer.registerIfAbsent(mockTracer);
+    system = ActorSystem.create("testSystem");
+
+    system.actorOf(DistributedTracedAbstractActorTest.TraceIdCheckActor.props(), "one");
+    system.actorOf(DistributedTracedAbstractActorTest.TraceIdCheckActor.props(), "two");
+    paths = Arrays.asList("/user/one", "/user/two");
+  }
+
+  @After
+  public void after() throws Exception {
+    GlobalTracerTestUtil.resetGlobalTracer();
+    system.terminate();
+    system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testExtractsOnce() {
+    ActorRef router = system.actorOf(TracedGroup.broadcast(paths).props(), "router");
+    MockSpan parent = mockTracer.buildSpan("parent").start();
+    AtomicInteger extractions = new AtomicInteger();
+    SpanContext context = parent.context();
+
+    TestKit probe = new TestKit(system);
+    router.tell(new DistributedTracedMessage<>(parent.context().toTraceId(), tracer -> {
+      extractions.incrementAndGet();
+      return context;
+    }), probe.getRef());
+    probe.expectMsg(true);
+    probe.expectMsg(true);
+
+    assertEquals(1, extractions.get());
+  }
+
+  @Test
+  public void testRouteSpan() {
+    ActorRef router = system.actorOf(TracedGroup.broadcast(paths).withRouteSpan(true).props(),
+        "router");
+    MockSpan parent = mockTracer.buildSpan("parent").start();
+
+    TestKit probe = new TestKit(system);
+    router.tell(DistributedTracedMessage.wrap(mockTracer, parent, parent.context().toTraceId()),
+        probe.getRef());
+    probe.expectMsg(true);
+    probe.expectMsg(true);
+
+    await().atMost(3, TimeUnit.SECONDS).until(() -> mockTracer.finishedSpans().size() == 3);
+    MockSpan routeSpan = finishedSpans(TracedRoutingLogic.ROUTE_OPERATION_NAME).get(0);
+    assertEquals(parent.context().spanId(), routeSpan.parentId());
+    assertEquals(2, routeSpan.tags().get(TracedRoutingLogic.ROUTER_ROUTEES));
+    assertEquals("BroadcastRoutingLogic", routeSpan.tags().get(TracedRoutingLogic.ROUTER_LOGIC));
+    for (MockSpan receiveSpan : finishedSpans("receive")) {
+      assertEquals(routeSpan.context().spanId(), receiveSpan.parentId());
+    }
+  }
+
+  @Test
+  public void testExplicitTracer() {
+    MockTracer routeTracer = new MockTracer(new ThreadLocalScopeManager());
+    ActorRef router = system.actorOf(
+        TracedGroup.broadcast(routeTracer, paths).withRouteSpan(true).props(), "router");
+    MockSpan parent = mockTracer.buildSpan("parent").start();
+
+    TestKit probe = new TestKit(system);
+    router.tell(DistributedTracedMessage.wrap(mockTracer, parent, parent.context().toTraceId()),
+        probe.getRef());
+    probe.expectMsg(true);
+    probe.expectMsg(true);
+
+    await().atMost(3, TimeUnit.SECONDS).until(() -> routeTracer.finishedSpans().size() == 1);
+    assertEquals(TracedRoutingLogic.ROUTE_OPERATION_NAME,
+        routeTracer.finishedSpans().get(0).operationName());
+    assertEquals(0, finishedSpans(TracedRoutingLogic.ROUTE_OPERATION_NAME).size());
+  }
+
+  @Test
+  public void testScatterGatherFirstCompleted() {
+    ActorRef router = system.actorOf(
+        TracedGroup.scatterGatherFirstCompleted(paths, Duration.ofSeconds(3)).withRouteSpan(true)
+            .props(), "router");
+    MockSpan parent = mockTracer.buildSpan("parent").start();
+
+    TestKit probe = new TestKit(system);
+    router.tell(DistributedTracedMessage.wrap(mockTracer, parent, parent.context().toTraceId()),
+        probe.getRef());
+    probe.expectMsg(true);
+
+    await().atMost(3, TimeUnit.SECONDS).until(() -> mockTracer.finishedSpans().size() == 3);
+    assertEquals(1, finishedSpans(TracedRoutingLogic.ROUTE_OPERATION_NAME).size());
+  }
+
+  @Test
+  public void testUntracedMessage() {
+    ActorRef router = system.actorOf(TracedGroup.broadcast(paths).withRouteSpan(true).props(),
+        "router");
+
+    TestKit probe = new TestKit(system);
+    router.tell("foo", probe.getRef());
+    probe.expectMsg(false);
+    probe.expectMsg(false);
+    assertEquals(0, mockTracer.finishedSpans().size());
+  }
+
+  private List<MockSpan> finishedSpans(String operationName) {
+    return mockTracer.finishedSpans().stream()
+        .filter(span -> span.operationName().equals(operationName))
+        .collect(Collectors.toList());
+  }
+}
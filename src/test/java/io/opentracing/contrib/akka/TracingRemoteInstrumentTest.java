@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.ExtendedActorSystem;
+import akka.actor.Props;
+import akka.testkit.javadsl.TestKit;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.mock.MockTracer.Propagator;
+import io.opentracing.util.GlobalTracer;
+import io.opentracing.util.GlobalTracerTestUtil;
+import io.opentracing.util.ThreadLocalScopeManager;
+import java.nio.ByteBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+public class TracingRemoteInstrumentTest {
+
+  private final MockTracer mockTracer =
+      new MockTracer(new ThreadLocalScopeManager(), Propagator.BINARY);
+  private ActorSystem system;
+
+  static class TraceIdCheckActor extends DistributedTracedAbstractActor {
+
+    TraceIdCheckActor(Tracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder()
+          .matchAny(x -> {
+            Span span = tracer().scopeManager().activeSpan();
+            boolean isSameTraceId = span != null && span.context().toTraceId().equals(x);
+            getSender().tell(isSameTraceId, getSelf());
+          })
+          .build();
+    }
+  }
+
+  @Before
+  public void before() {
+    mockTracer.reset();
+    system = ActorSystem.create("testSystem");
+  }
+
+  @After
+  public void after() throws Exception {
+    Await.result(system.terminate(), Duration.create(3, "seconds"));
+  }
+
+  @Test
+  public void testMetadataRoundTrip() {
+    TracingRemoteInstrument instrument = new TracingRemoteInstrument(mockTracer);
+    MockSpan span = mockTracer.buildSpan("one").start();
+    Object sentMessage = new DistributedTracedMessage<>("foo", new MetadataCarrier(span.context()));
+
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    instrument.remoteWriteMetadata(ActorRef.noSender(), sentMessage, ActorRef.noSender(), buffer);
+    buffer.flip();
+
+    DistributedTracedMessage<String> receivedMessage =
+        new DistributedTracedMessage<>("foo", new MetadataCarrier(null));
+    instrument
+        .remoteReadMetadata(ActorRef.noSender(), receivedMessage, ActorRef.noSender(), buffer);
+    assertFalse(buffer.hasRemaining());
+
+    SpanContext spanContext = receivedMessage.spanContext(mockTracer);
+    assertEquals(span.context().toTraceId(), spanContext.toTraceId());
+    assertEquals(span.context().toSpanId(), spanContext.toSpanId());
+  }
+
+  @Test
+  public void testNoMetadataWithoutContext() {
+    TracingRemoteInstrument instrument = new TracingRemoteInstrument(mockTracer);
+
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    instrument.remoteWriteMetadata(ActorRef.noSender(), "foo", ActorRef.noSender(), buffer);
+    instrument.remoteWriteMetadata(ActorRef.noSender(),
+        new DistributedTracedMessage<>("foo", new MetadataCarrier(null)), ActorRef.noSender(),
+        buffer);
+    assertEquals(0, buffer.position());
+  }
+
+  @Test
+  public void testTellActivatesContext() {
+    TestKit probe = new TestKit(system);
+    ActorRef actorRef = system.actorOf(
+        Props.create(TraceIdCheckActor.class, () -> new TraceIdCheckActor(mockTracer)));
+
+    final MockSpan parent = mockTracer.buildSpan("one").start();
+    try (Scope ignored = mockTracer.activateSpan(parent)) {
+      /* Wrapped with a carrier that the serializer leaves out of the payload */
+      TracingRemoteInstrument.tell(mockTracer, actorRef, parent.context().toTraceId(),
+          probe.getRef());
+    }
+    parent.finish();
+
+    probe.expectMsg(true);
+  }
+
+  @Test
+  public void testArteryRoundTrip() throws Exception {
+    GlobalTracerTestUtil.resetGlobalTracer();
+    GlobalTracer.registerIfAbsent(mockTracer);
+    Config config = ConfigFactory.parseString(
+        "akka.actor.provider = remote\n"
+            + "akka.remote.artery.transport = tcp\n"
+            + "akka.remote.artery.canonical.hostname = 127.0.0.1\n"
+            + "akka.remote.artery.canonical.port = 0\n"
+            + "akka.remote.artery.advanced.instruments = "
+            + "[\"io.opentracing.contrib.akka.TracingRemoteInstrument\"]");
+    ActorSystem sender = ActorSystem.create("senderSystem", config);
+    ActorSystem receiver = ActorSystem.create("receiverSystem", config);
+    try {
+      receiver.actorOf(Props.create(TraceIdCheckActor.class,
+          () -> new TraceIdCheckActor(mockTracer)), "checker");
+      ActorRef checker = ((ExtendedActorSystem) sender).provider().resolveActorRef(
+          ((ExtendedActorSystem) receiver).provider().getDefaultAddress() + "/user/checker");
+
+      TestKit probe = new TestKit(sender);
+      final MockSpan parent = mockTracer.buildSpan("one").start();
+      try (Scope ignored = mockTracer.activateSpan(parent)) {
+        TracingRemoteInstrument.tell(mockTracer, checker, parent.context().toTraceId(),
+            probe.getRef());
+      }
+      parent.finish();
+
+      probe.expectMsg(java.time.Duration.ofSeconds(10), true);
+    } finally {
+      GlobalTracerTestUtil.resetGlobalTracer();
+      Await.result(sender.terminate(), Duration.create(10, "seconds"));
+      Await.result(receiver.terminate(), Duration.create(10, "seconds"));
+    }
+  }
+
+  @Test
+  public void testSameInstanceSentTwice() {
+    TestKit probe = new TestKit(system);
+    ActorRef actorRef = system.actorOf(
+        Props.create(TraceIdCheckActor.class, () -> new TraceIdCheckActor(mockTracer)));
+
+    final MockSpan parent = mockTracer.buildSpan("one").start();
+    final String message = parent.context().toTraceId().intern();
+    try (Scope ignored = mockTracer.activateSpan(parent)) {
+      TracingRemoteInstrument.tell(mockTracer, actorRef, message, probe.getRef());
+    }
+    probe.expectMsg(true);
+
+    /* The context went with the first send only */
+    TracingRemoteInstrument.tell(mockTracer, actorRef, message, probe.getRef());
+    probe.expectMsg(false);
+  }
+
+  @Test
+  public void testTellWithoutActiveSpan() {
+    TestKit probe = new TestKit(system);
+    ActorRef actorRef = system.actorOf(
+        Props.create(TraceIdCheckActor.class, () -> new TraceIdCheckActor(mockTracer)));
+
+    TracingRemoteInstrument.tell(mockTracer, actorRef, "foo", probe.getRef());
+
+    probe.expectMsg(false);
+  }
+}
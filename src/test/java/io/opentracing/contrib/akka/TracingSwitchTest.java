@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017-2020 The OpenTracing Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package io.opentracing.contrib.akka;
+
+import static akka.pattern.Patterns.ask;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.util.Timeout;
+import io.opentracing.Span;
+import io.opentracing.mock.MockTracer;
+import io.opentracing.util.ThreadLocalScopeManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+public class TracingSwitchTest {
+
+  private final MockTracer mockTracer = new MockTracer(new ThreadLocalScopeManager());
+  private ActorSystem system;
+
+  static class SpanCheckActor extends TracedAbstractActor {
+    SpanCheckActor(MockTracer tracer) {
+      super(tracer);
+    }
+
+    @Override
+    public Receive createReceive() {
+      return receiveBuilder()
+          .match(String.class, x -> getSender().tell(tracer().activeSpan() != null, getSelf()))
+          .build();
+    }
+  }
+
+  @Before
+  public void before() {
+    mockTracer.reset();
+    system = ActorSystem.create("testSystem");
+  }
+
+  @After
+  public void after() throws Exception {
+    Await.result(system.terminate(), getDefaultDuration());
+  }
+
+  @Test
+  public void testDisableActorClass() throws Exception {
+    ActorRef actorRef = system.actorOf(
+        Props.create(SpanCheckActor.class, () -> new SpanCheckActor(mockTracer)), "one");
+    TracingSwitch tracingSwitch = TracingSwitch.get(system);
+
+    assertTrue(askWithSpan(actorRef));
+
+    tracingSwitch.disableActorClass(SpanCheckActor.class.getName());
+    assertArrayEquals(new String[]{SpanCheckActor.class.getName()},
+        tracingSwitch.getDisabledActorClasses());
+    assertFalse(askWithSpan(actorRef));
+
+    tracingSwitch.enableActorClass(SpanCheckActor.class.getName());
+    assertTrue(askWithSpan(actorRef));
+  }
+
+  @Test
+  public void testDisablePathPrefix() throws Exception {
+    ActorRef actorRef = system.actorOf(
+        Props.create(SpanCheckActor.class, () -> new SpanCheckActor(mockTracer)), "one");
+    TracingSwitch tracingSwitch = TracingSwitch.get(system);
+
+    tracingSwitch.disablePathPrefix("akka://testSystem/user/o");
+    assertFalse(tracingSwitch.isEnabled(SpanCheckActor.class, actorRef.path().toString()));
+    assertFalse(askWithSpan(actorRef));
+
+    tracingSwitch.enablePathPrefix("akka://testSystem/user/o");
+    assertEquals(0, tracingSwitch.getDisabledPathPrefixes().length);
+    assertTrue(askWithSpan(actorRef));
+  }
+
+  private boolean askWithSpan(ActorRef actorRef) throws Exception {
+    Span span = mockTracer.buildSpan("one").start();
+    Object message = TracedMessage.wrap(span, "foo");
+    return (Boolean) Await.result(ask(actorRef, message, new Timeout(getDefaultDuration())),
+        getDefaultDuration());
+  }
+
+  private static FiniteDuration getDefaultDuration() {
+    return Duration.create(3, "seconds");
+  }
+}